@@ -7,9 +7,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.jar.Manifest;
 import org.springframework.boot.loader.archive.Archive;
+import org.springframework.boot.loader.archive.JarFileArchive;
 
 public abstract class ExecutableArchiveLauncher extends Launcher {
    private static final String START_CLASS_ATTRIBUTE = "Start-Class";
+   private static final String PARALLEL_NESTED_ARCHIVES_PROPERTY = "loader.parallel-nested-archives";
    protected static final String BOOT_CLASSPATH_INDEX_ATTRIBUTE = "Spring-Boot-Classpath-Index";
    private final Archive archive;
    private final ClassPathIndexFile classPathIndex;
@@ -53,17 +55,20 @@ public abstract class ExecutableArchiveLauncher extends Launcher {
 
    @Override
    protected ClassLoader createClassLoader(Iterator<Archive> archives) throws Exception {
+      List<Archive> classPathArchives = new ArrayList(this.guessClassPathSize());
       List<URL> urls = new ArrayList(this.guessClassPathSize());
 
       while(archives.hasNext()) {
-         urls.add(((Archive)archives.next()).getUrl());
+         Archive archive = (Archive)archives.next();
+         classPathArchives.add(archive);
+         urls.add(archive.getUrl());
       }
 
       if (this.classPathIndex != null) {
          urls.addAll(this.classPathIndex.getUrls());
       }
 
-      return this.createClassLoader((URL[])urls.toArray(new URL[0]));
+      return this.createClassLoader(classPathArchives, urls);
    }
 
    private int guessClassPathSize() {
@@ -73,7 +78,10 @@ public abstract class ExecutableArchiveLauncher extends Launcher {
    @Override
    protected Iterator<Archive> getClassPathArchivesIterator() throws Exception {
       Archive.EntryFilter searchFilter = this::isSearchCandidate;
-      Iterator<Archive> archives = this.archive.getNestedArchives(searchFilter, entry -> this.isNestedArchive(entry) && !this.isEntryIndexed(entry));
+      Archive.EntryFilter includeFilter = entry -> this.isNestedArchive(entry) && !this.isEntryIndexed(entry);
+      Iterator<Archive> archives = this.isOpeningNestedArchivesInParallel()
+         ? ((JarFileArchive)this.archive).getNestedArchives(searchFilter, includeFilter, true)
+         : this.archive.getNestedArchives(searchFilter, includeFilter);
       if (this.isPostProcessingClassPathArchives()) {
          archives = this.applyClassPathArchivePostProcessing(archives);
       }
@@ -81,6 +89,10 @@ public abstract class ExecutableArchiveLauncher extends Launcher {
       return archives;
    }
 
+   protected boolean isOpeningNestedArchivesInParallel() {
+      return this.archive instanceof JarFileArchive && Boolean.getBoolean(PARALLEL_NESTED_ARCHIVES_PROPERTY);
+   }
+
    private boolean isEntryIndexed(Archive.Entry entry) {
       return this.classPathIndex != null ? this.classPathIndex.containsEntry(entry.getName()) : false;
    }
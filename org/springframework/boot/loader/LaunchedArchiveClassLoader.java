@@ -0,0 +1,53 @@
+package org.springframework.boot.loader;
+
+import java.net.URL;
+import org.springframework.boot.loader.archive.Archive;
+import org.springframework.boot.loader.jar.Handler;
+import org.springframework.boot.loader.jar.JarFile;
+
+public class LaunchedArchiveClassLoader extends LaunchedURLClassLoader {
+   private final JarFile[] jarFiles;
+
+   public LaunchedArchiveClassLoader(Archive rootArchive, URL[] urls, JarFile[] jarFiles, ClassLoader parent) {
+      super(false, rootArchive, urls, parent);
+      if (urls.length != jarFiles.length) {
+         throw new IllegalArgumentException("URLs and jar files must have the same length");
+      } else {
+         this.jarFiles = (JarFile[])jarFiles.clone();
+      }
+   }
+
+   @Override
+   java.util.jar.JarFile[] getJarFiles(URL[] urls) {
+      if (urls.length == this.jarFiles.length) {
+         return this.jarFiles;
+      } else {
+         java.util.jar.JarFile[] jarFiles = new java.util.jar.JarFile[urls.length];
+
+         for(int i = 0; i < urls.length; ++i) {
+            jarFiles[i] = i < this.jarFiles.length ? this.jarFiles[i] : Handler.probeJarFile(urls[i]);
+         }
+
+         return jarFiles;
+      }
+   }
+
+   @Override
+   boolean isDirectLookup() {
+      return true;
+   }
+
+   @Override
+   public void clearCache() {
+      for(java.util.jar.JarFile jarFile : this.getJarFiles(this.getURLs())) {
+         if (jarFile instanceof JarFile) {
+            ((JarFile)jarFile).clearCache();
+         }
+      }
+
+   }
+
+   static {
+      ClassLoader.registerAsParallelCapable();
+   }
+}
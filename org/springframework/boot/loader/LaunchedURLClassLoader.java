@@ -8,20 +8,34 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
 import java.security.AccessController;
+import java.security.CodeSource;
 import java.security.PrivilegedActionException;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.function.Supplier;
+import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.jar.Attributes.Name;
 import org.springframework.boot.loader.archive.Archive;
 import org.springframework.boot.loader.jar.Handler;
+import org.springframework.boot.loader.jar.ResourceIndex;
 
 public class LaunchedURLClassLoader extends URLClassLoader {
    private static final int BUFFER_SIZE = 4096;
+   private static final String PACKAGE_INDEX_PROPERTY = "loader.class-loader.package-index";
+   private static final String RESOURCE_INDEX_PROPERTY = "loader.class-loader.resource-index";
+   private static final String INDEX_DEFINE_CLASS_PROPERTY = "loader.class-loader.index-define-class";
    private final boolean exploded;
+   private final boolean usePackageIndex;
+   private final boolean useResourceIndex;
+   private final boolean indexDefineClass;
    private final Archive rootArchive;
    private final Object packageLock = new Object();
    private volatile LaunchedURLClassLoader.DefinePackageCallType definePackageCallType;
+   private volatile PackageIndex packageIndex;
+   private volatile LaunchedURLClassLoader.IndexedArchives indexedArchives;
+   private volatile int addedUrlCount;
 
    public LaunchedURLClassLoader(URL[] urls, ClassLoader parent) {
       this(false, urls, parent);
@@ -35,11 +49,17 @@ public class LaunchedURLClassLoader extends URLClassLoader {
       super(urls, parent);
       this.exploded = exploded;
       this.rootArchive = rootArchive;
+      this.usePackageIndex = Boolean.getBoolean(PACKAGE_INDEX_PROPERTY);
+      this.useResourceIndex = Boolean.getBoolean(RESOURCE_INDEX_PROPERTY);
+      this.indexDefineClass = Boolean.getBoolean(INDEX_DEFINE_CLASS_PROPERTY);
    }
 
    public URL findResource(String name) {
+      ResourceIndex resourceIndex = this.getResourceIndex();
       if (this.exploded) {
          return super.findResource(name);
+      } else if (resourceIndex != null) {
+         return resourceIndex.findResource(name);
       } else {
          Handler.setUseFastConnectionExceptions(true);
 
@@ -55,8 +75,11 @@ public class LaunchedURLClassLoader extends URLClassLoader {
    }
 
    public Enumeration<URL> findResources(String name) throws IOException {
+      ResourceIndex resourceIndex = this.getResourceIndex();
       if (this.exploded) {
          return super.findResources(name);
+      } else if (resourceIndex != null) {
+         return Collections.enumeration(resourceIndex.findResources(name));
       } else {
          Handler.setUseFastConnectionExceptions(true);
 
@@ -86,26 +109,130 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 
       if (this.exploded) {
          return super.loadClass(name, resolve);
+      } else if (this.getIndexedClassArchives() != null) {
+         return this.loadClassInArchives(name, resolve);
       } else {
          Handler.setUseFastConnectionExceptions(true);
 
          Class ex;
          try {
+            ex = this.loadClassInArchives(name, resolve);
+         } finally {
+            Handler.setUseFastConnectionExceptions(false);
+         }
+
+         return ex;
+      }
+   }
+
+   private Class<?> loadClassInArchives(String name, boolean resolve) throws ClassNotFoundException {
+      try {
+         this.definePackageIfNecessary(name);
+      } catch (IllegalArgumentException var4) {
+         if (this.getPackage(name) == null) {
+            throw new AssertionError("Package " + name + " has already been defined but it could not be found");
+         }
+      }
+
+      return super.loadClass(name, resolve);
+   }
+
+   protected Class<?> findClass(String name) throws ClassNotFoundException {
+      LaunchedURLClassLoader.IndexedArchives indexedArchives = this.getIndexedClassArchives();
+      if (indexedArchives == null) {
+         return super.findClass(name);
+      } else {
+         String entryName = name.replace('.', '/') + ".class";
+
+         ResourceIndex resourceIndex = indexedArchives.resourceIndex;
+
+         for(int archive = resourceIndex.getCandidate(entryName, 0); archive != -1; archive = resourceIndex.getCandidate(entryName, archive + 1)) {
+            JarFile jarFile = resourceIndex.getJarFile(archive);
+            java.util.jar.JarEntry entry = jarFile.getJarEntry(entryName);
+            if (entry != null) {
+               try {
+                  URL url = indexedArchives.urls[archive];
+                  this.definePackageForClass(name, jarFile.getManifest(), url);
+                  byte[] bytes = this.readEntry(jarFile, entry);
+                  CodeSource codeSource = new CodeSource(url, entry.getCodeSigners());
+                  return this.defineClass(name, bytes, 0, bytes.length, codeSource);
+               } catch (IOException var11) {
+                  throw new ClassNotFoundException(name, var11);
+               }
+            }
+         }
+
+         throw new ClassNotFoundException(name);
+      }
+   }
+
+   private void definePackageForClass(String className, Manifest manifest, URL url) {
+      int lastDot = className.lastIndexOf(46);
+      if (lastDot >= 0) {
+         String packageName = className.substring(0, lastDot);
+         if (this.getAndVerifyPackage(packageName, manifest, url) == null) {
             try {
-               this.definePackageIfNecessary(name);
-            } catch (IllegalArgumentException var8) {
-               if (this.getPackage(name) == null) {
-                  throw new AssertionError("Package " + name + " has already been defined but it could not be found");
+               if (manifest != null) {
+                  this.definePackage(packageName, manifest, url);
+               } else {
+                  this.definePackage(packageName, null, null, null, null, null, null, null);
+               }
+            } catch (IllegalArgumentException var6) {
+               if (this.getAndVerifyPackage(packageName, manifest, url) == null) {
+                  throw new AssertionError("Package " + packageName + " has already been defined but it could not be found");
                }
             }
+         }
+      }
 
-            ex = super.loadClass(name, resolve);
-         } finally {
-            Handler.setUseFastConnectionExceptions(false);
+   }
+
+   private Package getAndVerifyPackage(String packageName, Manifest manifest, URL url) {
+      Package pkg = this.getPackage(packageName);
+      if (pkg != null) {
+         if (pkg.isSealed()) {
+            if (!pkg.isSealed(url)) {
+               throw new SecurityException("sealing violation: package " + packageName + " is sealed");
+            }
+         } else if (manifest != null && this.isSealed(packageName, manifest)) {
+            throw new SecurityException("sealing violation: can't seal package " + packageName + ": already loaded");
          }
+      }
 
-         return ex;
+      return pkg;
+   }
+
+   private boolean isSealed(String packageName, Manifest manifest) {
+      Attributes attributes = manifest.getAttributes(packageName.replace('.', '/') + "/");
+      String sealed = attributes != null ? attributes.getValue(Name.SEALED) : null;
+      if (sealed == null) {
+         attributes = manifest.getMainAttributes();
+         sealed = attributes != null ? attributes.getValue(Name.SEALED) : null;
+      }
+
+      return "true".equalsIgnoreCase(sealed);
+   }
+
+   private byte[] readEntry(JarFile jarFile, java.util.jar.JarEntry entry) throws IOException {
+      InputStream inputStream = jarFile.getInputStream(entry);
+
+      byte[] var9;
+      try {
+         long size = entry.getSize();
+         ByteArrayOutputStream outputStream = new ByteArrayOutputStream(size > 0L && size < 2147483647L ? (int)size : 4096);
+         byte[] buffer = new byte[4096];
+
+         int bytesRead;
+         while((bytesRead = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, bytesRead);
+         }
+
+         var9 = outputStream.toByteArray();
+      } finally {
+         inputStream.close();
       }
+
+      return var9;
    }
 
    private Class<?> loadClassInLaunchedClassLoader(String name) throws ClassNotFoundException {
@@ -158,33 +285,141 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 
    }
 
-   private void definePackage(String className, String packageName) {
+   void definePackage(String className, String packageName) {
       try {
          AccessController.doPrivileged(() -> {
             String packageEntryName = packageName.replace('.', '/') + "/";
             String classEntryName = className.replace('.', '/') + ".class";
-
-            for(URL url : this.getURLs()) {
-               try {
-                  URLConnection connection = url.openConnection();
-                  if (connection instanceof JarURLConnection) {
-                     JarFile jarFile = ((JarURLConnection)connection).getJarFile();
-                     if (jarFile.getEntry(classEntryName) != null && jarFile.getEntry(packageEntryName) != null && jarFile.getManifest() != null) {
-                        this.definePackage(packageName, jarFile.getManifest(), url);
+            LaunchedURLClassLoader.IndexedArchives indexedArchives = this.getIndexedClassArchives();
+            if (indexedArchives != null) {
+               ResourceIndex resourceIndex = indexedArchives.resourceIndex;
+
+               for(int archive = resourceIndex.getCandidate(classEntryName, 0); archive != -1; archive = resourceIndex.getCandidate(classEntryName, archive + 1)) {
+                  try {
+                     JarFile jarFile = resourceIndex.getJarFile(archive);
+                     if (jarFile.getEntry(classEntryName) != null && jarFile.getManifest() != null) {
+                        this.definePackage(packageName, jarFile.getManifest(), indexedArchives.urls[archive]);
                         return null;
                      }
+                  } catch (IOException var13) {
                   }
-               } catch (IOException var11) {
                }
+
+               return null;
             }
 
-            return null;
+            PackageIndex packageIndex = this.getPackageIndex();
+            if (packageIndex != null) {
+               for(PackageIndex.Location location : packageIndex.get(packageName)) {
+                  try {
+                     JarFile jarFile = location.getJarFile();
+                     if (jarFile.getEntry(classEntryName) != null && jarFile.getManifest() != null) {
+                        this.definePackage(packageName, jarFile.getManifest(), location.getUrl());
+                        return null;
+                     }
+                  } catch (IOException var12) {
+                  }
+               }
+
+               return null;
+            } else {
+               for(URL url : this.getURLs()) {
+                  try {
+                     URLConnection connection = url.openConnection();
+                     if (connection instanceof JarURLConnection) {
+                        JarFile jarFile = ((JarURLConnection)connection).getJarFile();
+                        if (jarFile.getEntry(classEntryName) != null && jarFile.getEntry(packageEntryName) != null && jarFile.getManifest() != null) {
+                           this.definePackage(packageName, jarFile.getManifest(), url);
+                           return null;
+                        }
+                     }
+                  } catch (IOException var11) {
+                  }
+               }
+
+               return null;
+            }
          }, AccessController.getContext());
       } catch (PrivilegedActionException var4) {
       }
 
    }
 
+   public PackageIndex getPackageIndex() {
+      if (!this.usePackageIndex) {
+         return null;
+      } else {
+         URL[] urls = this.getURLs();
+         PackageIndex packageIndex = this.packageIndex;
+         if (packageIndex == null || packageIndex.getArchiveCount() != urls.length) {
+            synchronized(this.packageLock) {
+               packageIndex = this.packageIndex;
+               if (packageIndex == null || packageIndex.getArchiveCount() != urls.length) {
+                  packageIndex = PackageIndex.build(urls, this.getJarFiles(urls));
+                  this.packageIndex = packageIndex;
+               }
+            }
+         }
+
+         return packageIndex;
+      }
+   }
+
+   public ResourceIndex getResourceIndex() {
+      LaunchedURLClassLoader.IndexedArchives indexedArchives = this.getIndexedArchives();
+      return indexedArchives != null ? indexedArchives.resourceIndex : null;
+   }
+
+   private LaunchedURLClassLoader.IndexedArchives getIndexedClassArchives() {
+      return !this.indexDefineClass && !this.isDirectLookup() ? null : this.getIndexedArchives();
+   }
+
+   private LaunchedURLClassLoader.IndexedArchives getIndexedArchives() {
+      if (!this.exploded && (this.useResourceIndex || this.isDirectLookup())) {
+         LaunchedURLClassLoader.IndexedArchives indexedArchives = this.indexedArchives;
+         if (indexedArchives == null || indexedArchives.addedUrlCount != this.addedUrlCount) {
+            synchronized(this.packageLock) {
+               indexedArchives = this.indexedArchives;
+               if (indexedArchives == null || indexedArchives.addedUrlCount != this.addedUrlCount) {
+                  URL[] urls = this.getURLs();
+                  indexedArchives = new LaunchedURLClassLoader.IndexedArchives(urls, this.buildResourceIndex(this.getJarFiles(urls)), this.addedUrlCount);
+                  this.indexedArchives = indexedArchives;
+               }
+            }
+         }
+
+         return indexedArchives.resourceIndex != null ? indexedArchives : null;
+      } else {
+         return null;
+      }
+   }
+
+   private ResourceIndex buildResourceIndex(JarFile[] jarFiles) {
+      ResourceIndex resourceIndex = this.useResourceIndex ? ResourceIndex.build(jarFiles) : null;
+      return resourceIndex == null && this.isDirectLookup() ? ResourceIndex.unindexed(jarFiles) : resourceIndex;
+   }
+
+   boolean isDirectLookup() {
+      return false;
+   }
+
+   protected void addURL(URL url) {
+      synchronized(this.packageLock) {
+         super.addURL(url);
+         ++this.addedUrlCount;
+      }
+   }
+
+   JarFile[] getJarFiles(URL[] urls) {
+      JarFile[] jarFiles = new JarFile[urls.length];
+
+      for(int i = 0; i < urls.length; ++i) {
+         jarFiles[i] = Handler.probeJarFile(urls[i]);
+      }
+
+      return jarFiles;
+   }
+
    protected Package definePackage(String name, Manifest man, URL url) throws IllegalArgumentException {
       if (!this.exploded) {
          return super.definePackage(name, man, url);
@@ -271,6 +506,18 @@ public class LaunchedURLClassLoader extends URLClassLoader {
       ATTRIBUTES;
    }
 
+   private static final class IndexedArchives {
+      private final URL[] urls;
+      private final ResourceIndex resourceIndex;
+      private final int addedUrlCount;
+
+      IndexedArchives(URL[] urls, ResourceIndex resourceIndex, int addedUrlCount) {
+         this.urls = urls;
+         this.resourceIndex = resourceIndex;
+         this.addedUrlCount = addedUrlCount;
+      }
+   }
+
    private static class UseFastConnectionExceptionsEnumeration implements Enumeration<URL> {
       private final Enumeration<URL> delegate;
 
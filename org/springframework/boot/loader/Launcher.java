@@ -15,6 +15,7 @@ import org.springframework.boot.loader.jar.JarFile;
 
 public abstract class Launcher {
    private static final String JAR_MODE_LAUNCHER = "org.springframework.boot.loader.jarmode.JarModeLauncher";
+   private static final String ARCHIVE_CLASS_LOADER_PROPERTY = "loader.archive-class-loader";
 
    protected void launch(String[] args) throws Exception {
       if (!this.isExploded()) {
@@ -22,6 +23,10 @@ public abstract class Launcher {
       }
 
       ClassLoader classLoader = this.createClassLoader(this.getClassPathArchivesIterator());
+      if (!this.isExploded()) {
+         JarFile.saveCentralDirectoryIndexes();
+      }
+
       String jarMode = System.getProperty("jarmode");
       String launchClass = jarMode != null && !jarMode.isEmpty() ? "org.springframework.boot.loader.jarmode.JarModeLauncher" : this.getMainClass();
       this.launch(args, launchClass, classLoader);
@@ -33,19 +38,57 @@ public abstract class Launcher {
    }
 
    protected ClassLoader createClassLoader(Iterator<Archive> archives) throws Exception {
+      List<Archive> classPathArchives = new ArrayList(50);
       List<URL> urls = new ArrayList(50);
 
       while(archives.hasNext()) {
-         urls.add(((Archive)archives.next()).getUrl());
+         Archive archive = (Archive)archives.next();
+         classPathArchives.add(archive);
+         urls.add(archive.getUrl());
+      }
+
+      return this.createClassLoader(classPathArchives, urls);
+   }
+
+   ClassLoader createClassLoader(List<Archive> archives, List<URL> urls) throws Exception {
+      URL[] urlArray = (URL[])urls.toArray(new URL[0]);
+      if (archives.size() == urlArray.length && this.isUsingArchiveClassLoader()) {
+         JarFile[] jarFiles = this.getJarFiles(archives);
+         if (jarFiles != null) {
+            return this.createClassLoader(urlArray, jarFiles);
+         }
       }
 
-      return this.createClassLoader((URL[])urls.toArray(new URL[0]));
+      return this.createClassLoader(urlArray);
+   }
+
+   private JarFile[] getJarFiles(List<Archive> archives) {
+      JarFile[] jarFiles = new JarFile[archives.size()];
+
+      for(int i = 0; i < jarFiles.length; ++i) {
+         Archive archive = (Archive)archives.get(i);
+         if (!(archive instanceof JarFileArchive)) {
+            return null;
+         }
+
+         jarFiles[i] = ((JarFileArchive)archive).getJarFile();
+      }
+
+      return jarFiles;
    }
 
    protected ClassLoader createClassLoader(URL[] urls) throws Exception {
       return new LaunchedURLClassLoader(this.isExploded(), this.getArchive(), urls, this.getClass().getClassLoader());
    }
 
+   protected ClassLoader createClassLoader(URL[] urls, JarFile[] jarFiles) throws Exception {
+      return new LaunchedArchiveClassLoader(this.getArchive(), urls, jarFiles, this.getClass().getClassLoader());
+   }
+
+   protected boolean isUsingArchiveClassLoader() {
+      return !this.isExploded() && Boolean.getBoolean(ARCHIVE_CLASS_LOADER_PROPERTY);
+   }
+
    protected void launch(String[] args, String launchClass, ClassLoader classLoader) throws Exception {
       Thread.currentThread().setContextClassLoader(classLoader);
       this.createMainMethodRunner(launchClass, args, classLoader).run();
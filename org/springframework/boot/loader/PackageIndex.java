@@ -0,0 +1,115 @@
+package org.springframework.boot.loader;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+public final class PackageIndex {
+   private static final PackageIndex.Location[] NO_LOCATIONS = new PackageIndex.Location[0];
+   private final Map<String, PackageIndex.Location[]> locations;
+   private final int archiveCount;
+   private final long buildTime;
+   private final LongAdder lookups = new LongAdder();
+   private final LongAdder skippedArchives = new LongAdder();
+
+   private PackageIndex(Map<String, PackageIndex.Location[]> locations, int archiveCount, long buildTime) {
+      this.locations = locations;
+      this.archiveCount = archiveCount;
+      this.buildTime = buildTime;
+   }
+
+   PackageIndex.Location[] get(String packageName) {
+      PackageIndex.Location[] candidates = (PackageIndex.Location[])this.locations.get(packageName);
+      candidates = candidates != null ? candidates : NO_LOCATIONS;
+      this.lookups.increment();
+      this.skippedArchives.add((long)(this.archiveCount - candidates.length));
+      return candidates;
+   }
+
+   int getArchiveCount() {
+      return this.archiveCount;
+   }
+
+   public int getPackageCount() {
+      return this.locations.size();
+   }
+
+   public long getBuildTimeNanos() {
+      return this.buildTime;
+   }
+
+   public long getLookupCount() {
+      return this.lookups.sum();
+   }
+
+   public long getSkippedArchiveCount() {
+      return this.skippedArchives.sum();
+   }
+
+   @Override
+   public String toString() {
+      return "PackageIndex[packages="
+         + this.getPackageCount()
+         + ", archives="
+         + this.archiveCount
+         + ", buildTimeNanos="
+         + this.buildTime
+         + ", lookups="
+         + this.getLookupCount()
+         + ", skippedArchives="
+         + this.getSkippedArchiveCount()
+         + "]";
+   }
+
+   static PackageIndex build(URL[] urls, JarFile[] jarFiles) {
+      long start = System.nanoTime();
+      Map<String, List<PackageIndex.Location>> collected = new HashMap();
+
+      for(int i = 0; i < jarFiles.length; ++i) {
+         if (jarFiles[i] != null) {
+            PackageIndex.Location location = new PackageIndex.Location(urls[i], jarFiles[i]);
+            Enumeration<JarEntry> entries = jarFiles[i].entries();
+
+            while(entries.hasMoreElements()) {
+               String name = ((JarEntry)entries.nextElement()).getName();
+               if (name.length() > 1 && name.charAt(name.length() - 1) == '/') {
+                  String packageName = name.substring(0, name.length() - 1).replace('/', '.');
+                  collected.computeIfAbsent(packageName, key -> new ArrayList(1)).add(location);
+               }
+            }
+         }
+      }
+
+      Map<String, PackageIndex.Location[]> locations = new HashMap((int)((float)collected.size() / 0.75F) + 1);
+
+      for(Map.Entry<String, List<PackageIndex.Location>> entry : collected.entrySet()) {
+         locations.put(entry.getKey(), (PackageIndex.Location[])((List)entry.getValue()).toArray(NO_LOCATIONS));
+      }
+
+      return new PackageIndex(locations, jarFiles.length, System.nanoTime() - start);
+   }
+
+   static final class Location {
+      private final URL url;
+      private final JarFile jarFile;
+
+      private Location(URL url, JarFile jarFile) {
+         this.url = url;
+         this.jarFile = jarFile;
+      }
+
+      URL getUrl() {
+         return this.url;
+      }
+
+      JarFile getJarFile() {
+         return this.jarFile;
+      }
+   }
+}
@@ -7,10 +7,13 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 import java.util.jar.JarEntry;
 import java.util.jar.Manifest;
+import java.util.stream.Collectors;
 import org.springframework.boot.loader.jar.JarFile;
 
 public class JarFileArchive implements Archive {
@@ -48,12 +51,32 @@ public class JarFileArchive implements Archive {
       return new JarFileArchive.NestedArchiveIterator(this.jarFile.iterator(), searchFilter, includeFilter);
    }
 
+   public Iterator<Archive> getNestedArchives(Archive.EntryFilter searchFilter, Archive.EntryFilter includeFilter, boolean parallel) throws IOException {
+      if (!parallel) {
+         return this.getNestedArchives(searchFilter, includeFilter);
+      } else {
+         List<Archive.Entry> entries = new ArrayList();
+         Iterator<Archive.Entry> iterator = new JarFileArchive.EntryIterator(this.jarFile.iterator(), searchFilter, includeFilter);
+
+         while(iterator.hasNext()) {
+            entries.add(iterator.next());
+         }
+
+         List<Archive> archives = (List)entries.parallelStream().map(this::adaptNestedArchive).collect(Collectors.toList());
+         return archives.iterator();
+      }
+   }
+
    @Deprecated
    @Override
    public Iterator<Archive.Entry> iterator() {
       return new JarFileArchive.EntryIterator(this.jarFile.iterator(), null, null);
    }
 
+   public JarFile getJarFile() {
+      return this.jarFile;
+   }
+
    @Override
    public void close() throws IOException {
       this.jarFile.close();
@@ -73,6 +96,14 @@ public class JarFileArchive implements Archive {
       }
    }
 
+   private Archive adaptNestedArchive(Archive.Entry entry) {
+      try {
+         return this.getNestedArchive(entry);
+      } catch (IOException var3) {
+         throw new IllegalStateException(var3);
+      }
+   }
+
    private Archive getUnpackedNestedArchive(JarEntry jarEntry) throws IOException {
       String name = jarEntry.getName();
       if (name.lastIndexOf(47) != -1) {
@@ -87,7 +118,7 @@ public class JarFileArchive implements Archive {
       return new JarFileArchive(file, file.toURI().toURL());
    }
 
-   private File getTempUnpackDirectory() {
+   private synchronized File getTempUnpackDirectory() {
       if (this.tempUnpackDirectory == null) {
          File tempDirectory = new File(System.getProperty("java.io.tmpdir"));
          this.tempUnpackDirectory = this.createUnpackDirectory(tempDirectory);
@@ -247,11 +278,7 @@ public class JarFileArchive implements Archive {
       }
 
       protected Archive adapt(Archive.Entry entry) {
-         try {
-            return JarFileArchive.this.getNestedArchive(entry);
-         } catch (IOException var3) {
-            throw new IllegalStateException(var3);
-         }
+         return JarFileArchive.this.adaptNestedArchive(entry);
       }
    }
 }
@@ -0,0 +1,168 @@
+package org.springframework.boot.loader.data;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+public class ByteBufferRandomAccessData implements RandomAccessData {
+   private static final long MAX_SEGMENT_SIZE = 1073741824L;
+   private final ByteBuffer[] segments;
+   private final long segmentSize;
+   private final long offset;
+   private final long length;
+
+   public ByteBufferRandomAccessData(ByteBuffer buffer) {
+      this(new ByteBuffer[]{buffer.slice()}, Math.max((long)buffer.remaining(), 1L), 0L, (long)buffer.remaining());
+   }
+
+   private ByteBufferRandomAccessData(ByteBuffer[] segments, long segmentSize, long offset, long length) {
+      this.segments = segments;
+      this.segmentSize = segmentSize;
+      this.offset = offset;
+      this.length = length;
+   }
+
+   public static ByteBufferRandomAccessData map(File file) throws IOException {
+      if (file == null) {
+         throw new IllegalArgumentException("File must not be null");
+      } else {
+         RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+         try {
+            FileChannel channel = randomAccessFile.getChannel();
+            long size = channel.size();
+            int count = (int)Math.max((size + MAX_SEGMENT_SIZE - 1L) / MAX_SEGMENT_SIZE, 1L);
+            ByteBuffer[] segments = new ByteBuffer[count];
+
+            for(int i = 0; i < count; ++i) {
+               long position = (long)i * MAX_SEGMENT_SIZE;
+               segments[i] = channel.map(MapMode.READ_ONLY, position, Math.min(MAX_SEGMENT_SIZE, size - position));
+            }
+
+            return new ByteBufferRandomAccessData(segments, MAX_SEGMENT_SIZE, 0L, size);
+         } finally {
+            randomAccessFile.close();
+         }
+      }
+   }
+
+   @Override
+   public InputStream getInputStream() throws IOException {
+      return new ByteBufferRandomAccessData.DataInputStream();
+   }
+
+   @Override
+   public RandomAccessData getSubsection(long offset, long length) {
+      if (offset >= 0L && length >= 0L && offset + length <= this.length) {
+         return new ByteBufferRandomAccessData(this.segments, this.segmentSize, this.offset + offset, length);
+      } else {
+         throw new IndexOutOfBoundsException();
+      }
+   }
+
+   @Override
+   public byte[] read() throws IOException {
+      return this.read(0L, this.length);
+   }
+
+   @Override
+   public byte[] read(long offset, long length) throws IOException {
+      if (offset < 0L || length < 0L || offset > this.length) {
+         throw new IndexOutOfBoundsException();
+      } else if (offset + length > this.length) {
+         throw new EOFException();
+      } else {
+         byte[] bytes = new byte[(int)length];
+         this.read(bytes, offset, 0, bytes.length);
+         return bytes;
+      }
+   }
+
+   private int readByte(long position) {
+      if (position >= this.length) {
+         return -1;
+      } else {
+         long absolute = this.offset + position;
+         return this.segments[(int)(absolute / this.segmentSize)].get((int)(absolute % this.segmentSize)) & 255;
+      }
+   }
+
+   private int read(byte[] bytes, long position, int offset, int length) {
+      if (position > this.length) {
+         return -1;
+      } else {
+         int remaining = (int)Math.min((long)length, this.length - position);
+         int read = 0;
+
+         while(read < remaining) {
+            long absolute = this.offset + position + (long)read;
+            ByteBuffer segment = this.segments[(int)(absolute / this.segmentSize)].duplicate();
+            int segmentPosition = (int)(absolute % this.segmentSize);
+            int count = Math.min(remaining - read, segment.limit() - segmentPosition);
+            segment.position(segmentPosition);
+            segment.get(bytes, offset + read, count);
+            read += count;
+         }
+
+         return read;
+      }
+   }
+
+   @Override
+   public long getSize() {
+      return this.length;
+   }
+
+   private class DataInputStream extends InputStream {
+      private long position;
+
+      private DataInputStream() {
+      }
+
+      public int read() throws IOException {
+         int read = ByteBufferRandomAccessData.this.readByte(this.position);
+         if (read > -1) {
+            ++this.position;
+         }
+
+         return read;
+      }
+
+      public int read(byte[] b) throws IOException {
+         return this.read(b, 0, b != null ? b.length : 0);
+      }
+
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (b == null) {
+            throw new NullPointerException("Bytes must not be null");
+         } else if (len == 0) {
+            return 0;
+         } else if (this.position >= ByteBufferRandomAccessData.this.length) {
+            return -1;
+         } else {
+            int read = ByteBufferRandomAccessData.this.read(b, this.position, off, len);
+            this.position += (long)read;
+            return read;
+         }
+      }
+
+      public long skip(long n) throws IOException {
+         if (n <= 0L) {
+            return 0L;
+         } else {
+            long skipped = Math.min(ByteBufferRandomAccessData.this.length - this.position, n);
+            this.position += skipped;
+            return skipped;
+         }
+      }
+
+      public int available() {
+         return (int)Math.min(ByteBufferRandomAccessData.this.length - this.position, 2147483647L);
+      }
+   }
+}
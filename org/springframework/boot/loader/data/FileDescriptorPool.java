@@ -0,0 +1,154 @@
+package org.springframework.boot.loader.data;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class FileDescriptorPool {
+   static final String MAX_OPEN_FILES_PROPERTY = "loader.data.max-open-files";
+   private static final FileDescriptorPool INSTANCE = new FileDescriptorPool(Integer.getInteger(MAX_OPEN_FILES_PROPERTY, 0));
+   private final int maxOpenFiles;
+   private final Set<FileDescriptorPool.Handle> openHandles = new HashSet();
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
+   private final LongAdder reopens = new LongAdder();
+   private final LongAdder reopenNanos = new LongAdder();
+   private volatile boolean overCapacity;
+
+   FileDescriptorPool(int maxOpenFiles) {
+      this.maxOpenFiles = maxOpenFiles;
+   }
+
+   public static FileDescriptorPool get() {
+      return INSTANCE;
+   }
+
+   void opened(FileDescriptorPool.Handle handle, boolean reopened, long nanos) {
+      this.misses.increment();
+      if (reopened) {
+         this.reopens.increment();
+         this.reopenNanos.add(nanos);
+      }
+
+      if (this.maxOpenFiles > 0) {
+         synchronized(this.openHandles) {
+            this.openHandles.add(handle);
+         }
+      }
+
+   }
+
+   void accessed() {
+      this.hits.increment();
+   }
+
+   void released() {
+      if (this.overCapacity) {
+         this.evictIfNecessary(null);
+      }
+
+   }
+
+   void closed(FileDescriptorPool.Handle handle) {
+      if (this.maxOpenFiles > 0) {
+         synchronized(this.openHandles) {
+            this.openHandles.remove(handle);
+         }
+      }
+
+   }
+
+   void evictIfNecessary(FileDescriptorPool.Handle current) {
+      if (this.maxOpenFiles > 0) {
+         List<FileDescriptorPool.Handle> evicted = new ArrayList();
+         synchronized(this.openHandles) {
+            while(this.openHandles.size() > this.maxOpenFiles) {
+               FileDescriptorPool.Handle eldest = null;
+
+               for(FileDescriptorPool.Handle handle : this.openHandles) {
+                  if (handle != current && !handle.isInUse() && (eldest == null || handle.getLastAccessTime() - eldest.getLastAccessTime() < 0L)) {
+                     eldest = handle;
+                  }
+               }
+
+               if (eldest == null) {
+                  break;
+               }
+
+               this.openHandles.remove(eldest);
+               evicted.add(eldest);
+            }
+
+            this.overCapacity = this.openHandles.size() > this.maxOpenFiles;
+         }
+
+         for(FileDescriptorPool.Handle handle : evicted) {
+            if (handle.evict()) {
+               this.evictions.increment();
+            }
+         }
+
+      }
+   }
+
+   public int getMaxOpenFiles() {
+      return this.maxOpenFiles;
+   }
+
+   public int getOpenFileCount() {
+      synchronized(this.openHandles) {
+         return this.openHandles.size();
+      }
+   }
+
+   public long getHitCount() {
+      return this.hits.sum();
+   }
+
+   public long getMissCount() {
+      return this.misses.sum();
+   }
+
+   public long getEvictionCount() {
+      return this.evictions.sum();
+   }
+
+   public long getReopenCount() {
+      return this.reopens.sum();
+   }
+
+   public long getAverageReopenNanos() {
+      long reopens = this.getReopenCount();
+      return reopens != 0L ? this.reopenNanos.sum() / reopens : 0L;
+   }
+
+   @Override
+   public String toString() {
+      return "FileDescriptorPool[maxOpenFiles="
+         + this.maxOpenFiles
+         + ", openFiles="
+         + this.getOpenFileCount()
+         + ", hits="
+         + this.getHitCount()
+         + ", misses="
+         + this.getMissCount()
+         + ", evictions="
+         + this.getEvictionCount()
+         + ", reopens="
+         + this.getReopenCount()
+         + ", averageReopenNanos="
+         + this.getAverageReopenNanos()
+         + "]";
+   }
+
+   interface Handle {
+      long getLastAccessTime();
+
+      boolean isInUse();
+
+      boolean evict();
+   }
+}
@@ -2,6 +2,8 @@ package org.springframework.boot.loader.data;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
 
 public interface RandomAccessData {
    InputStream getInputStream() throws IOException;
@@ -13,4 +15,16 @@ public interface RandomAccessData {
    byte[] read(long offset, long length) throws IOException;
 
    long getSize();
+
+   default CompletableFuture<ByteBuffer> readAsync(long offset, long length) {
+      CompletableFuture<ByteBuffer> result = new CompletableFuture();
+
+      try {
+         result.complete(ByteBuffer.wrap(this.read(offset, length)));
+      } catch (RuntimeException | IOException var7) {
+         result.completeExceptionally(var7);
+      }
+
+      return result;
+   }
 }
@@ -6,8 +6,23 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RandomAccessDataFile implements RandomAccessData {
+   private static final String BUFFER_SIZE_PROPERTY = "loader.data.buffer-size";
+   private static final int DEFAULT_BUFFER_SIZE = 8192;
+   private static final int BUFFER_POOL_SIZE = 64;
+   private static final int BUFFER_SIZE = Integer.getInteger(BUFFER_SIZE_PROPERTY, DEFAULT_BUFFER_SIZE);
+   private static final Queue<byte[]> bufferPool = new ArrayBlockingQueue(BUFFER_POOL_SIZE);
    private final RandomAccessDataFile.FileAccess fileAccess;
    private final long offset;
    private final long length;
@@ -64,6 +79,21 @@ public class RandomAccessDataFile implements RandomAccessData {
       }
    }
 
+   @Override
+   public CompletableFuture<ByteBuffer> readAsync(long offset, long length) {
+      if (offset < 0L || length < 0L || offset > this.length) {
+         return failed(new IndexOutOfBoundsException());
+      } else {
+         return offset + length > this.length ? failed(new EOFException()) : this.fileAccess.readAsync(this.offset + offset, (int)length);
+      }
+   }
+
+   private static CompletableFuture<ByteBuffer> failed(Throwable ex) {
+      CompletableFuture<ByteBuffer> result = new CompletableFuture();
+      result.completeExceptionally(ex);
+      return result;
+   }
+
    private int readByte(long position) throws IOException {
       return position >= this.length ? -1 : this.fileAccess.readByte(this.offset + position);
    }
@@ -77,23 +107,43 @@ public class RandomAccessDataFile implements RandomAccessData {
       return this.length;
    }
 
+   private static byte[] acquireBuffer() {
+      byte[] buffer = (byte[])bufferPool.poll();
+      return buffer != null ? buffer : new byte[BUFFER_SIZE];
+   }
+
+   private static void releaseBuffer(byte[] buffer) {
+      bufferPool.offer(buffer);
+   }
+
    public void close() throws IOException {
       this.fileAccess.close();
    }
 
    private class DataInputStream extends InputStream {
       private int position;
+      private byte[] buffer;
+      private int bufferPosition;
+      private int bufferLength;
 
       private DataInputStream() {
       }
 
       public int read() throws IOException {
-         int read = RandomAccessDataFile.this.readByte((long)this.position);
-         if (read > -1) {
+         if (BUFFER_SIZE <= 0) {
+            int read = RandomAccessDataFile.this.readByte((long)this.position);
+            if (read > -1) {
+               this.moveOn(1);
+            }
+
+            return read;
+         } else if (!this.isBuffered(this.position) && !this.fill()) {
+            return -1;
+         } else {
+            int read = this.buffer[this.position - this.bufferPosition] & 255;
             this.moveOn(1);
+            return read;
          }
-
-         return read;
       }
 
       public int read(byte[] b) throws IOException {
@@ -113,7 +163,37 @@ public class RandomAccessDataFile implements RandomAccessData {
             return 0;
          } else {
             int cappedLen = this.cap((long)len);
-            return cappedLen <= 0 ? -1 : (int)this.moveOn(RandomAccessDataFile.this.read(b, (long)this.position, off, cappedLen));
+            if (cappedLen <= 0) {
+               return -1;
+            } else if (this.isBuffered(this.position)) {
+               int count = Math.min(cappedLen, this.bufferPosition + this.bufferLength - this.position);
+               System.arraycopy(this.buffer, this.position - this.bufferPosition, b, off, count);
+               return (int)this.moveOn(count);
+            } else if (cappedLen < BUFFER_SIZE) {
+               return this.fill() ? this.doRead(b, off, len) : -1;
+            } else {
+               return (int)this.moveOn(RandomAccessDataFile.this.read(b, (long)this.position, off, cappedLen));
+            }
+         }
+      }
+
+      private boolean isBuffered(int position) {
+         return this.buffer != null && position >= this.bufferPosition && position < this.bufferPosition + this.bufferLength;
+      }
+
+      private boolean fill() throws IOException {
+         int length = this.cap((long)BUFFER_SIZE);
+         if (length <= 0) {
+            return false;
+         } else {
+            if (this.buffer == null) {
+               this.buffer = acquireBuffer();
+            }
+
+            int read = RandomAccessDataFile.this.read(this.buffer, (long)this.position, 0, length);
+            this.bufferPosition = this.position;
+            this.bufferLength = Math.max(read, 0);
+            return read > 0;
          }
       }
 
@@ -121,6 +201,16 @@ public class RandomAccessDataFile implements RandomAccessData {
          return n <= 0L ? 0L : this.moveOn(this.cap(n));
       }
 
+      public void close() throws IOException {
+         byte[] buffer = this.buffer;
+         if (buffer != null) {
+            this.buffer = null;
+            this.bufferLength = 0;
+            releaseBuffer(buffer);
+         }
+
+      }
+
       private int cap(long n) {
          return (int)Math.min(RandomAccessDataFile.this.length - (long)this.position, n);
       }
@@ -131,38 +221,252 @@ public class RandomAccessDataFile implements RandomAccessData {
       }
    }
 
-   private static final class FileAccess {
+   private static final class FileAccess implements FileDescriptorPool.Handle {
+      private static final String POSITIONAL_READS_PROPERTY = "loader.data.positional-reads";
+      private static final int MAX_READ_ATTEMPTS = 3;
       private final Object monitor = new Object();
       private final File file;
+      private final boolean positionalReads;
+      private final FileDescriptorPool pool = FileDescriptorPool.get();
+      private final AtomicInteger readsInProgress = new AtomicInteger();
       private RandomAccessFile randomAccessFile;
+      private volatile FileChannel fileChannel;
+      private volatile AsynchronousFileChannel asynchronousFileChannel;
+      private volatile long lastAccessTime;
+      private boolean openedBefore;
+      private boolean asynchronousOpenedBefore;
 
       private FileAccess(File file) {
          this.file = file;
-         this.openIfNecessary();
+         this.positionalReads = Boolean.getBoolean(POSITIONAL_READS_PROPERTY);
+         boolean opened;
+         synchronized(this.monitor) {
+            opened = this.openIfNecessary();
+         }
+
+         this.accessed(opened);
       }
 
       private int read(byte[] bytes, long position, int offset, int length) throws IOException {
+         if (this.positionalReads) {
+            return this.readPositional(ByteBuffer.wrap(bytes, offset, length), position);
+         } else {
+            boolean opened;
+            int read;
+            synchronized(this.monitor) {
+               opened = this.openIfNecessary();
+               this.randomAccessFile.seek(position);
+               read = this.randomAccessFile.read(bytes, offset, length);
+            }
+
+            this.accessed(opened);
+            return read;
+         }
+      }
+
+      private int readPositional(ByteBuffer buffer, long position) throws IOException {
+         this.readsInProgress.incrementAndGet();
+
+         try {
+            int total = 0;
+
+            for(int attempt = 1; ; ++attempt) {
+               FileChannel channel = this.getFileChannel();
+
+               try {
+                  while(buffer.hasRemaining()) {
+                     int read = channel.read(buffer, position + (long)total);
+                     if (read == -1) {
+                        return total > 0 ? total : -1;
+                     }
+
+                     total += read;
+                  }
+
+                  return total;
+               } catch (ClosedChannelException var10) {
+                  this.discardFileChannel(channel);
+                  if (Thread.currentThread().isInterrupted() || attempt >= MAX_READ_ATTEMPTS) {
+                     throw var10;
+                  }
+               }
+            }
+         } finally {
+            this.readFinished();
+         }
+      }
+
+      private CompletableFuture<ByteBuffer> readAsync(long position, int length) {
+         CompletableFuture<ByteBuffer> result = new CompletableFuture();
+         this.readsInProgress.incrementAndGet();
+         result.whenComplete((bytes, ex) -> this.readFinished());
+
+         try {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            new RandomAccessDataFile.AsyncRead(this, buffer, position, result).read();
+         } catch (RuntimeException | IOException var6) {
+            result.completeExceptionally(var6);
+         }
+
+         return result;
+      }
+
+      private AsynchronousFileChannel getAsynchronousFileChannel() throws IOException {
+         AsynchronousFileChannel channel = this.asynchronousFileChannel;
+         boolean opened = false;
+         if (channel == null) {
+            synchronized(this.monitor) {
+               channel = this.asynchronousFileChannel;
+               if (channel == null) {
+                  long start = System.nanoTime();
+                  channel = AsynchronousFileChannel.open(this.file.toPath(), StandardOpenOption.READ);
+                  this.asynchronousFileChannel = channel;
+                  this.pool.opened(this, this.asynchronousOpenedBefore, System.nanoTime() - start);
+                  this.asynchronousOpenedBefore = true;
+                  opened = true;
+               }
+            }
+         }
+
+         this.accessed(opened);
+         return channel;
+      }
+
+      private void discardAsynchronousFileChannel(AsynchronousFileChannel channel) {
+         synchronized(this.monitor) {
+            if (this.asynchronousFileChannel == channel) {
+               if (this.randomAccessFile == null) {
+                  this.pool.closed(this);
+               }
+
+               try {
+                  channel.close();
+               } catch (IOException var5) {
+               }
+
+               this.asynchronousFileChannel = null;
+            }
+
+         }
+      }
+
+      private FileChannel getFileChannel() {
+         FileChannel channel = this.fileChannel;
+         boolean opened = false;
+         if (channel == null) {
+            synchronized(this.monitor) {
+               opened = this.openIfNecessary();
+               channel = this.fileChannel;
+            }
+         }
+
+         this.accessed(opened);
+         return channel;
+      }
+
+      private void discardFileChannel(FileChannel channel) {
          synchronized(this.monitor) {
-            this.openIfNecessary();
-            this.randomAccessFile.seek(position);
-            return this.randomAccessFile.read(bytes, offset, length);
+            if (this.fileChannel == channel) {
+               if (this.asynchronousFileChannel == null) {
+                  this.pool.closed(this);
+               }
+
+               this.fileChannel = null;
+               this.randomAccessFile = null;
+            }
+
          }
       }
 
-      private void openIfNecessary() {
+      private boolean openIfNecessary() {
          if (this.randomAccessFile == null) {
             try {
+               long start = System.nanoTime();
                this.randomAccessFile = new RandomAccessFile(this.file, "r");
-            } catch (FileNotFoundException var2) {
+               if (this.positionalReads) {
+                  this.fileChannel = this.randomAccessFile.getChannel();
+               }
+
+               this.pool.opened(this, this.openedBefore, System.nanoTime() - start);
+               this.openedBefore = true;
+               return true;
+            } catch (FileNotFoundException var4) {
                throw new IllegalArgumentException(String.format("File %s must exist", this.file.getAbsolutePath()));
             }
+         } else {
+            return false;
          }
+      }
+
+      private void accessed(boolean opened) {
+         this.lastAccessTime = System.nanoTime();
+         if (opened) {
+            this.pool.evictIfNecessary(this);
+         } else {
+            this.pool.accessed();
+         }
+
+      }
+
+      @Override
+      public long getLastAccessTime() {
+         return this.lastAccessTime;
+      }
 
+      private void readFinished() {
+         if (this.readsInProgress.decrementAndGet() == 0) {
+            this.pool.released();
+         }
+
+      }
+
+      @Override
+      public boolean isInUse() {
+         return this.readsInProgress.get() > 0;
+      }
+
+      @Override
+      public boolean evict() {
+         synchronized(this.monitor) {
+            boolean evicted = false;
+            if (this.asynchronousFileChannel != null) {
+               try {
+                  this.asynchronousFileChannel.close();
+               } catch (IOException var5) {
+               }
+
+               this.asynchronousFileChannel = null;
+               evicted = true;
+            }
+
+            if (this.randomAccessFile != null) {
+               try {
+                  this.fileChannel = null;
+                  this.randomAccessFile.close();
+               } catch (IOException var4) {
+               }
+
+               this.randomAccessFile = null;
+               evicted = true;
+            }
+
+            return evicted;
+         }
       }
 
       private void close() throws IOException {
          synchronized(this.monitor) {
+            if (this.asynchronousFileChannel != null || this.randomAccessFile != null) {
+               this.pool.closed(this);
+            }
+
+            if (this.asynchronousFileChannel != null) {
+               this.asynchronousFileChannel.close();
+               this.asynchronousFileChannel = null;
+            }
+
             if (this.randomAccessFile != null) {
+               this.fileChannel = null;
                this.randomAccessFile.close();
                this.randomAccessFile = null;
             }
@@ -171,11 +475,81 @@ public class RandomAccessDataFile implements RandomAccessData {
       }
 
       private int readByte(long position) throws IOException {
-         synchronized(this.monitor) {
-            this.openIfNecessary();
-            this.randomAccessFile.seek(position);
-            return this.randomAccessFile.read();
+         if (this.positionalReads) {
+            byte[] bytes = new byte[1];
+            return this.readPositional(ByteBuffer.wrap(bytes), position) == 1 ? bytes[0] & 255 : -1;
+         } else {
+            boolean opened;
+            int read;
+            synchronized(this.monitor) {
+               opened = this.openIfNecessary();
+               this.randomAccessFile.seek(position);
+               read = this.randomAccessFile.read();
+            }
+
+            this.accessed(opened);
+            return read;
          }
       }
    }
+
+   private static final class AsyncRead implements CompletionHandler<Integer, Object> {
+      private final RandomAccessDataFile.FileAccess fileAccess;
+      private final ByteBuffer buffer;
+      private final long position;
+      private final CompletableFuture<ByteBuffer> result;
+      private AsynchronousFileChannel channel;
+      private int attempts;
+
+      private AsyncRead(RandomAccessDataFile.FileAccess fileAccess, ByteBuffer buffer, long position, CompletableFuture<ByteBuffer> result) {
+         this.fileAccess = fileAccess;
+         this.buffer = buffer;
+         this.position = position;
+         this.result = result;
+      }
+
+      private void read() throws IOException {
+         if (!this.buffer.hasRemaining()) {
+            this.buffer.flip();
+            this.result.complete(this.buffer);
+         } else {
+            if (this.channel == null) {
+               this.channel = this.fileAccess.getAsynchronousFileChannel();
+               ++this.attempts;
+            }
+
+            this.channel.read(this.buffer, this.position + (long)this.buffer.position(), null, this);
+         }
+
+      }
+
+      public void completed(Integer read, Object attachment) {
+         if (read < 0) {
+            this.result.completeExceptionally(new EOFException());
+         } else {
+            this.readOrFail();
+         }
+
+      }
+
+      public void failed(Throwable ex, Object attachment) {
+         if (ex instanceof ClosedChannelException && this.attempts < RandomAccessDataFile.FileAccess.MAX_READ_ATTEMPTS) {
+            this.fileAccess.discardAsynchronousFileChannel(this.channel);
+            this.channel = null;
+            this.readOrFail();
+         } else {
+            this.result.completeExceptionally(ex);
+         }
+
+      }
+
+      private void readOrFail() {
+         try {
+            this.read();
+         } catch (RuntimeException | IOException var2) {
+            this.result.completeExceptionally(var2);
+         }
+
+      }
+   }
 }
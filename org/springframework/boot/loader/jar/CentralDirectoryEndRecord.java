@@ -63,13 +63,15 @@ class CentralDirectoryEndRecord {
    }
 
    RandomAccessData getCentralDirectory(RandomAccessData data) {
-      if (this.zip64End != null) {
-         return this.zip64End.getCentralDirectory(data);
-      } else {
-         long offset = Bytes.littleEndianValue(this.block, this.offset + 16, 4);
-         long length = Bytes.littleEndianValue(this.block, this.offset + 12, 4);
-         return data.getSubsection(offset, length);
-      }
+      return data.getSubsection(this.getCentralDirectoryOffset(), this.getCentralDirectoryLength());
+   }
+
+   long getCentralDirectoryOffset() {
+      return this.zip64End != null ? this.zip64End.centralDirectoryOffset : Bytes.littleEndianValue(this.block, this.offset + 16, 4);
+   }
+
+   long getCentralDirectoryLength() {
+      return this.zip64End != null ? this.zip64End.centralDirectoryLength : Bytes.littleEndianValue(this.block, this.offset + 12, 4);
    }
 
    int getNumberOfRecords() {
@@ -112,10 +114,6 @@ class CentralDirectoryEndRecord {
          return this.locator.getZip64EndSize();
       }
 
-      private RandomAccessData getCentralDirectory(RandomAccessData data) {
-         return data.getSubsection(this.centralDirectoryOffset, this.centralDirectoryLength);
-      }
-
       private int getNumberOfRecords() {
          return this.numberOfRecords;
       }
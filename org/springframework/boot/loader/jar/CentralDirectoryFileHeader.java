@@ -18,6 +18,7 @@ final class CentralDirectoryFileHeader implements FileHeader {
    private byte[] extra;
    private AsciiBytes comment;
    private long localHeaderOffset;
+   private int index = -1;
 
    CentralDirectoryFileHeader() {
    }
@@ -126,6 +127,10 @@ final class CentralDirectoryFileHeader implements FileHeader {
       return this.localHeaderOffset;
    }
 
+   int getIndex() {
+      return this.index;
+   }
+
    public CentralDirectoryFileHeader clone() {
       byte[] header = new byte[46];
       System.arraycopy(this.header, this.headerOffset, header, 0, header.length);
@@ -139,6 +144,13 @@ final class CentralDirectoryFileHeader implements FileHeader {
       return fileHeader;
    }
 
+   static CentralDirectoryFileHeader fromBytes(byte[] bytes, int index, JarEntryFilter filter) throws IOException {
+      CentralDirectoryFileHeader fileHeader = new CentralDirectoryFileHeader();
+      fileHeader.load(bytes, 0, null, 0, filter);
+      fileHeader.index = index;
+      return fileHeader;
+   }
+
    private static int getChronoValue(long value, ChronoField field) {
       ValueRange range = field.range();
       return Math.toIntExact(Math.min(Math.max(value, range.getMinimum()), range.getMaximum()));
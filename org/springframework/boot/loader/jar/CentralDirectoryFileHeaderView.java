@@ -0,0 +1,168 @@
+package org.springframework.boot.loader.jar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+final class CentralDirectoryFileHeaderView implements FileHeader {
+   private static final int[] INITIAL_BYTE_BITMASK = new int[]{127, 31, 15, 7};
+   private final ByteBuffer buffer;
+   private final int offset;
+   private final int index;
+
+   CentralDirectoryFileHeaderView(ByteBuffer buffer, int offset, int index) {
+      this.buffer = buffer;
+      this.offset = offset;
+      this.index = index;
+   }
+
+   int getIndex() {
+      return this.index;
+   }
+
+   @Override
+   public boolean hasName(CharSequence name, char suffix) {
+      return hasName(this.buffer, this.offset, name, suffix);
+   }
+
+   @Override
+   public int getMethod() {
+      return getUnsignedShort(this.buffer, this.offset + 10);
+   }
+
+   @Override
+   public long getCompressedSize() {
+      return getUnsignedInt(this.buffer, this.offset + 20);
+   }
+
+   @Override
+   public long getSize() {
+      return getUnsignedInt(this.buffer, this.offset + 24);
+   }
+
+   @Override
+   public long getLocalHeaderOffset() {
+      return getUnsignedInt(this.buffer, this.offset + 42);
+   }
+
+   CentralDirectoryFileHeader toFileHeader(JarEntryFilter filter) throws IOException {
+      int length = 46 + getUnsignedShort(this.buffer, this.offset + 28) + getUnsignedShort(this.buffer, this.offset + 30) + getUnsignedShort(this.buffer, this.offset + 32);
+      ByteBuffer source = this.buffer.duplicate();
+      source.position(this.offset);
+      byte[] bytes = new byte[length];
+      source.get(bytes);
+      return CentralDirectoryFileHeader.fromBytes(bytes, this.index, filter);
+   }
+
+   static boolean hasName(ByteBuffer buffer, int offset, CharSequence name, char suffix) {
+      int nameLength = getUnsignedShort(buffer, offset + 28);
+      int totalLen = name.length() + (suffix != 0 ? 1 : 0);
+      if (nameLength < totalLen) {
+         return false;
+      } else {
+         int charIndex = 0;
+         int start = offset + 46;
+
+         for(int i = start; i < start + nameLength; ++i) {
+            int b = buffer.get(i);
+            if (b >= 0) {
+               if (getChar(name, suffix, charIndex++) != b) {
+                  return false;
+               }
+            } else {
+               int remainingUtfBytes = getNumberOfUtfBytes(b) - 1;
+               b &= INITIAL_BYTE_BITMASK[remainingUtfBytes];
+
+               for(int j = 0; j < remainingUtfBytes; ++j) {
+                  b = (b << 6) + (buffer.get(++i) & 63);
+               }
+
+               char c = getChar(name, suffix, charIndex++);
+               if (b <= 65535) {
+                  if (c != b) {
+                     return false;
+                  }
+               } else {
+                  if (c != (b >> 10) + 55232) {
+                     return false;
+                  }
+
+                  c = getChar(name, suffix, charIndex++);
+                  if (c != (b & 1023) + 56320) {
+                     return false;
+                  }
+               }
+            }
+         }
+
+         return charIndex == totalLen;
+      }
+   }
+
+   static int hashName(ByteBuffer buffer, int offset) {
+      int nameLength = getUnsignedShort(buffer, offset + 28);
+      int start = offset + 46;
+      int hash = 0;
+
+      for(int i = start; i < start + nameLength; ++i) {
+         int b = buffer.get(i);
+         if (b >= 0) {
+            hash = 31 * hash + b;
+         } else {
+            int remainingUtfBytes = getNumberOfUtfBytes(b) - 1;
+            b &= INITIAL_BYTE_BITMASK[remainingUtfBytes];
+
+            for(int j = 0; j < remainingUtfBytes; ++j) {
+               b = (b << 6) + (buffer.get(++i) & 63);
+            }
+
+            if (b <= 65535) {
+               hash = 31 * hash + b;
+            } else {
+               hash = 31 * hash + (b >> 10) + 55232;
+               hash = 31 * hash + (b & 1023) + 56320;
+            }
+         }
+      }
+
+      return hash;
+   }
+
+   static boolean startsWith(ByteBuffer buffer, int offset, String prefix) {
+      if (getUnsignedShort(buffer, offset + 28) < prefix.length()) {
+         return false;
+      } else {
+         for(int i = 0; i < prefix.length(); ++i) {
+            if (buffer.get(offset + 46 + i) != prefix.charAt(i)) {
+               return false;
+            }
+         }
+
+         return true;
+      }
+   }
+
+   private static char getChar(CharSequence name, char suffix, int index) {
+      if (index < name.length()) {
+         return name.charAt(index);
+      } else {
+         return index == name.length() ? suffix : '\u0000';
+      }
+   }
+
+   private static int getNumberOfUtfBytes(int b) {
+      int numberOfUtfBytes;
+      for(numberOfUtfBytes = 0; (b & 128) != 0; ++numberOfUtfBytes) {
+         b <<= 1;
+      }
+
+      return numberOfUtfBytes;
+   }
+
+   private static int getUnsignedShort(ByteBuffer buffer, int index) {
+      return buffer.getShort(index) & 65535;
+   }
+
+   private static long getUnsignedInt(ByteBuffer buffer, int index) {
+      return (long)buffer.getInt(index) & 4294967295L;
+   }
+}
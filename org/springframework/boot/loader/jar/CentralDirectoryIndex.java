@@ -0,0 +1,271 @@
+package org.springframework.boot.loader.jar;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.boot.loader.data.RandomAccessDataFile;
+
+final class CentralDirectoryIndex {
+   private static final String INDEX_DIRECTORY_PROPERTY = "loader.jar.index-dir";
+   private static final String INDEX_FILE_EXTENSION = ".idx";
+   private static final int MAGIC = 1396851524;
+   private static final int VERSION = 2;
+   private static final int BUFFER_SIZE = 8192;
+   private static final Map<File, CentralDirectoryIndex> indexes = new ConcurrentHashMap();
+   private final File rootFile;
+   private final File indexFile;
+   private final long rootLength;
+   private final long rootLastModified;
+   private final long rootCentralDirectoryOffset;
+   private final long rootCentralDirectoryLength;
+   private final int rootNumberOfRecords;
+   private final Map<String, CentralDirectoryIndex.Entry> entries = new ConcurrentHashMap();
+   private volatile boolean modified;
+
+   private CentralDirectoryIndex(File rootFile, File indexFile, long rootLength, long rootLastModified, CentralDirectoryEndRecord rootEndRecord) {
+      this.rootFile = rootFile;
+      this.indexFile = indexFile;
+      this.rootLength = rootLength;
+      this.rootLastModified = rootLastModified;
+      this.rootCentralDirectoryOffset = rootEndRecord.getCentralDirectoryOffset();
+      this.rootCentralDirectoryLength = rootEndRecord.getCentralDirectoryLength();
+      this.rootNumberOfRecords = rootEndRecord.getNumberOfRecords();
+   }
+
+   CentralDirectoryIndex.Entry getEntry(String pathFromRoot) {
+      return (CentralDirectoryIndex.Entry)this.entries.get(pathFromRoot);
+   }
+
+   void addEntry(String pathFromRoot, CentralDirectoryIndex.Entry entry) {
+      this.entries.put(pathFromRoot, entry);
+      this.modified = true;
+   }
+
+   private boolean isCurrent() {
+      return this.rootFile.length() == this.rootLength && this.rootFile.lastModified() == this.rootLastModified;
+   }
+
+   private void load() {
+      if (this.indexFile.isFile()) {
+         try {
+            ByteBuffer buffer = map(this.indexFile);
+            if (buffer.getInt() == MAGIC
+               && buffer.getInt() == VERSION
+               && buffer.getLong() == this.rootLength
+               && buffer.getLong() == this.rootLastModified
+               && buffer.getLong() == this.rootCentralDirectoryOffset
+               && buffer.getLong() == this.rootCentralDirectoryLength
+               && buffer.getInt() == this.rootNumberOfRecords) {
+               int count = buffer.getInt();
+
+               for(int i = 0; i < count; ++i) {
+                  String pathFromRoot = readString(buffer);
+                  boolean signed = buffer.get() != 0;
+                  int size = buffer.getInt();
+                  this.entries.put(pathFromRoot, new CentralDirectoryIndex.Entry(signed, size, buffer, buffer.position()));
+                  buffer.position(buffer.position() + size * 12);
+               }
+            }
+         } catch (IOException | RuntimeException var7) {
+            this.entries.clear();
+         }
+
+      }
+   }
+
+   synchronized void save() throws IOException {
+      if (this.modified) {
+         File directory = this.indexFile.getParentFile();
+         if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create index directory " + directory);
+         } else {
+            File temporaryFile = File.createTempFile(this.indexFile.getName(), ".tmp", directory);
+
+            try {
+               DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile), BUFFER_SIZE));
+
+               try {
+                  outputStream.writeInt(MAGIC);
+                  outputStream.writeInt(VERSION);
+                  outputStream.writeLong(this.rootLength);
+                  outputStream.writeLong(this.rootLastModified);
+                  outputStream.writeLong(this.rootCentralDirectoryOffset);
+                  outputStream.writeLong(this.rootCentralDirectoryLength);
+                  outputStream.writeInt(this.rootNumberOfRecords);
+                  outputStream.writeInt(this.entries.size());
+
+                  for(Map.Entry<String, CentralDirectoryIndex.Entry> entry : this.entries.entrySet()) {
+                     writeString(outputStream, (String)entry.getKey());
+                     ((CentralDirectoryIndex.Entry)entry.getValue()).writeTo(outputStream);
+                  }
+               } finally {
+                  outputStream.close();
+               }
+
+               move(temporaryFile, this.indexFile);
+               this.modified = false;
+            } finally {
+               temporaryFile.delete();
+            }
+
+         }
+      }
+   }
+
+   private static void move(File source, File target) throws IOException {
+      try {
+         Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException var3) {
+         Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+
+   }
+
+   private static ByteBuffer map(File file) throws IOException {
+      RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+      try {
+         FileChannel channel = randomAccessFile.getChannel();
+         return channel.map(MapMode.READ_ONLY, 0L, channel.size());
+      } finally {
+         randomAccessFile.close();
+      }
+   }
+
+   private static String readString(ByteBuffer buffer) {
+      byte[] bytes = new byte[buffer.getInt()];
+      buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+
+   private static void writeString(DataOutputStream outputStream, String string) throws IOException {
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      outputStream.writeInt(bytes.length);
+      outputStream.write(bytes);
+   }
+
+   static CentralDirectoryIndex get(RandomAccessDataFile rootFile) {
+      String directory = System.getProperty(INDEX_DIRECTORY_PROPERTY);
+      if (directory != null && !directory.isEmpty()) {
+         File file = rootFile.getFile();
+         CentralDirectoryIndex index = (CentralDirectoryIndex)indexes.get(file);
+         if (index == null || !index.isCurrent()) {
+            try {
+               String name = file.getName() + "-" + Integer.toHexString(file.getAbsolutePath().hashCode()) + INDEX_FILE_EXTENSION;
+               index = new CentralDirectoryIndex(file, new File(directory, name), file.length(), file.lastModified(), new CentralDirectoryEndRecord(rootFile));
+               index.load();
+               indexes.put(file, index);
+            } catch (IOException | RuntimeException var4) {
+               return null;
+            }
+         }
+
+         return index;
+      } else {
+         return null;
+      }
+   }
+
+   static void saveAll() {
+      for(CentralDirectoryIndex index : indexes.values()) {
+         try {
+            index.save();
+         } catch (IOException | RuntimeException var3) {
+         }
+      }
+
+   }
+
+   static final class Entry {
+      private final boolean signed;
+      private final int size;
+      private final ByteBuffer source;
+      private final int sourcePosition;
+      private int[] hashCodes;
+      private int[] centralDirectoryOffsets;
+      private int[] positions;
+
+      Entry(boolean signed, int size, int[] hashCodes, int[] centralDirectoryOffsets, int[] positions) {
+         this.signed = signed;
+         this.size = size;
+         this.source = null;
+         this.sourcePosition = 0;
+         this.hashCodes = hashCodes;
+         this.centralDirectoryOffsets = centralDirectoryOffsets;
+         this.positions = positions;
+      }
+
+      private Entry(boolean signed, int size, ByteBuffer source, int sourcePosition) {
+         this.signed = signed;
+         this.size = size;
+         this.source = source;
+         this.sourcePosition = sourcePosition;
+      }
+
+      boolean isSigned() {
+         return this.signed;
+      }
+
+      int getSize() {
+         return this.size;
+      }
+
+      int[] getHashCodes() {
+         this.loadArrays();
+         return this.hashCodes;
+      }
+
+      int[] getCentralDirectoryOffsets() {
+         this.loadArrays();
+         return this.centralDirectoryOffsets;
+      }
+
+      int[] getPositions() {
+         this.loadArrays();
+         return this.positions;
+      }
+
+      private synchronized void loadArrays() {
+         if (this.hashCodes == null) {
+            ByteBuffer buffer = this.source.duplicate();
+            buffer.position(this.sourcePosition);
+            int[] hashCodes = new int[this.size];
+            int[] centralDirectoryOffsets = new int[this.size];
+            int[] positions = new int[this.size];
+            buffer.asIntBuffer().get(hashCodes).get(centralDirectoryOffsets).get(positions);
+            this.centralDirectoryOffsets = centralDirectoryOffsets;
+            this.positions = positions;
+            this.hashCodes = hashCodes;
+         }
+
+      }
+
+      private void writeTo(DataOutputStream outputStream) throws IOException {
+         this.loadArrays();
+         outputStream.writeBoolean(this.signed);
+         outputStream.writeInt(this.size);
+         this.write(outputStream, this.hashCodes);
+         this.write(outputStream, this.centralDirectoryOffsets);
+         this.write(outputStream, this.positions);
+      }
+
+      private void write(DataOutputStream outputStream, int[] values) throws IOException {
+         for(int i = 0; i < this.size; ++i) {
+            outputStream.writeInt(values[i]);
+         }
+
+      }
+   }
+}
@@ -1,12 +1,15 @@
 package org.springframework.boot.loader.jar;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import org.springframework.boot.loader.data.RandomAccessData;
 
 class CentralDirectoryParser {
    private static final int CENTRAL_DIRECTORY_HEADER_BASE_SIZE = 46;
+   private static final int WINDOW_SIZE = 65536;
    private final List<CentralDirectoryVisitor> visitors = new ArrayList();
 
    <T extends CentralDirectoryVisitor> T addVisitor(T visitor) {
@@ -17,7 +20,7 @@ class CentralDirectoryParser {
    RandomAccessData parse(RandomAccessData data, boolean skipPrefixBytes) throws IOException {
       CentralDirectoryEndRecord endRecord = new CentralDirectoryEndRecord(data);
       if (skipPrefixBytes) {
-         data = this.getArchiveData(endRecord, data);
+         data = getArchiveData(endRecord, data);
       }
 
       RandomAccessData centralDirectoryData = endRecord.getCentralDirectory(data);
@@ -28,19 +31,32 @@ class CentralDirectoryParser {
    }
 
    private void parseEntries(CentralDirectoryEndRecord endRecord, RandomAccessData centralDirectoryData) throws IOException {
-      byte[] bytes = centralDirectoryData.read(0L, centralDirectoryData.getSize());
-      CentralDirectoryFileHeader fileHeader = new CentralDirectoryFileHeader();
-      int dataOffset = 0;
-
-      for(int i = 0; i < endRecord.getNumberOfRecords(); ++i) {
-         fileHeader.load(bytes, dataOffset, null, 0, null);
-         this.visitFileHeader(dataOffset, fileHeader);
-         dataOffset += 46 + fileHeader.getName().length() + fileHeader.getComment().length() + fileHeader.getExtra().length;
+      InputStream inputStream = centralDirectoryData.getInputStream();
+
+      try {
+         CentralDirectoryParser.Window window = new CentralDirectoryParser.Window(inputStream, (int)Math.min((long)WINDOW_SIZE, centralDirectoryData.getSize()));
+         CentralDirectoryFileHeader fileHeader = new CentralDirectoryFileHeader();
+         int dataOffset = 0;
+
+         for(int i = 0; i < endRecord.getNumberOfRecords(); ++i) {
+            byte[] bytes = window.ensure(46);
+            int length = 46
+               + (int)Bytes.littleEndianValue(bytes, window.start + 28, 2)
+               + (int)Bytes.littleEndianValue(bytes, window.start + 30, 2)
+               + (int)Bytes.littleEndianValue(bytes, window.start + 32, 2);
+            bytes = window.ensure(length);
+            fileHeader.load(bytes, window.start, null, 0, null);
+            this.visitFileHeader(dataOffset, fileHeader);
+            window.start += length;
+            dataOffset += length;
+         }
+      } finally {
+         inputStream.close();
       }
 
    }
 
-   private RandomAccessData getArchiveData(CentralDirectoryEndRecord endRecord, RandomAccessData data) {
+   static RandomAccessData getArchiveData(CentralDirectoryEndRecord endRecord, RandomAccessData data) {
       long offset = endRecord.getStartOfArchive(data);
       return offset == 0L ? data : data.getSubsection(offset, data.getSize() - offset);
    }
@@ -65,4 +81,37 @@ class CentralDirectoryParser {
       }
 
    }
+
+   private static final class Window {
+      private final InputStream inputStream;
+      private byte[] bytes;
+      private int start;
+      private int end;
+
+      private Window(InputStream inputStream, int size) {
+         this.inputStream = inputStream;
+         this.bytes = new byte[Math.max(size, 46)];
+      }
+
+      private byte[] ensure(int length) throws IOException {
+         if (this.end - this.start < length) {
+            byte[] bytes = length > this.bytes.length ? new byte[Math.max(length, this.bytes.length * 2)] : this.bytes;
+            System.arraycopy(this.bytes, this.start, bytes, 0, this.end - this.start);
+            this.bytes = bytes;
+            this.end -= this.start;
+            this.start = 0;
+
+            while(this.end < length) {
+               int bytesRead = this.inputStream.read(this.bytes, this.end, this.bytes.length - this.end);
+               if (bytesRead <= 0) {
+                  throw new EOFException("Unexpected end of central directory");
+               }
+
+               this.end += bytesRead;
+            }
+         }
+
+         return this.bytes;
+      }
+   }
 }
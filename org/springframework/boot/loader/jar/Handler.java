@@ -17,10 +17,10 @@ import java.util.regex.Pattern;
 public class Handler extends URLStreamHandler {
    private static final String JAR_PROTOCOL = "jar:";
    private static final String FILE_PROTOCOL = "file:";
+   private static final int FILE_PROTOCOL_HASH_CODE = "file".hashCode();
    private static final String SEPARATOR = "!/";
    private static final Pattern SEPARATOR_PATTERN = Pattern.compile("!/", 16);
    private static final String CURRENT_DIR = "/./";
-   private static final Pattern CURRENT_DIR_PATTERN = Pattern.compile("/./", 16);
    private static final String PARENT_DIR = "/../";
    private static final String PROTOCOL_HANDLER = "java.protocol.handler.pkgs";
    private static final String[] FALLBACK_HANDLERS = new String[]{"sun.net.www.protocol.jar.Handler"};
@@ -130,6 +130,8 @@ public class Handler extends URLStreamHandler {
       int separatorIndex = spec.lastIndexOf("!/");
       if (separatorIndex == -1) {
          throw new IllegalArgumentException("No !/ in spec '" + spec + "'");
+      } else if (isFileSpecWithoutAuthority(spec, separatorIndex)) {
+         return spec;
       } else {
          try {
             new URL(spec.substring(0, separatorIndex));
@@ -140,6 +142,11 @@ public class Handler extends URLStreamHandler {
       }
    }
 
+   private static boolean isFileSpecWithoutAuthority(String spec, int endIndex) {
+      int beginIndex = FILE_PROTOCOL.length();
+      return endIndex >= beginIndex && spec.startsWith(FILE_PROTOCOL) && (endIndex < beginIndex + 2 || !spec.startsWith("//", beginIndex));
+   }
+
    private String getFileFromContext(URL context, String spec) {
       String file = context.getFile();
       if (spec.startsWith("/")) {
@@ -182,29 +189,60 @@ public class Handler extends URLStreamHandler {
          return file;
       } else {
          int afterLastSeparatorIndex = file.lastIndexOf("!/") + "!/".length();
-         String afterSeparator = file.substring(afterLastSeparatorIndex);
-         afterSeparator = this.replaceParentDir(afterSeparator);
-         afterSeparator = this.replaceCurrentDir(afterSeparator);
-         return file.substring(0, afterLastSeparatorIndex) + afterSeparator;
+         char[] chars = new char[file.length()];
+         file.getChars(0, afterLastSeparatorIndex, chars, 0);
+         int length = this.replaceParentDir(file, afterLastSeparatorIndex, chars);
+         length = this.replaceCurrentDir(chars, afterLastSeparatorIndex, length);
+         return new String(chars, 0, length);
       }
    }
 
-   private String replaceParentDir(String file) {
-      int parentDirIndex;
-      while((parentDirIndex = file.indexOf("/../")) >= 0) {
-         int precedingSlashIndex = file.lastIndexOf(47, parentDirIndex - 1);
-         if (precedingSlashIndex >= 0) {
-            file = file.substring(0, precedingSlashIndex) + file.substring(parentDirIndex + 3);
+   private int replaceParentDir(String file, int beginIndex, char[] chars) {
+      int length = beginIndex;
+      int index = beginIndex;
+
+      while(index < file.length()) {
+         if (file.startsWith("/../", index)) {
+            int precedingSlashIndex = this.lastIndexOf(chars, '/', beginIndex, length - 1);
+            if (precedingSlashIndex >= 0) {
+               length = precedingSlashIndex;
+               index += 3;
+            } else {
+               length = beginIndex;
+               index += 4;
+            }
          } else {
-            file = file.substring(parentDirIndex + 4);
+            chars[length++] = file.charAt(index++);
          }
       }
 
-      return file;
+      return length;
    }
 
-   private String replaceCurrentDir(String file) {
-      return CURRENT_DIR_PATTERN.matcher(file).replaceAll("/");
+   private int lastIndexOf(char[] chars, char ch, int beginIndex, int fromIndex) {
+      for(int i = fromIndex; i >= beginIndex; --i) {
+         if (chars[i] == ch) {
+            return i;
+         }
+      }
+
+      return -1;
+   }
+
+   private int replaceCurrentDir(char[] chars, int beginIndex, int endIndex) {
+      int length = beginIndex;
+      int index = beginIndex;
+
+      while(index < endIndex) {
+         if (index + 2 < endIndex && chars[index] == '/' && chars[index + 1] == '.' && chars[index + 2] == '/') {
+            chars[length++] = '/';
+            index += 3;
+         } else {
+            chars[length++] = chars[index++];
+         }
+      }
+
+      return length;
    }
 
    protected int hashCode(URL u) {
@@ -216,6 +254,9 @@ public class Handler extends URLStreamHandler {
       int separatorIndex = file.indexOf("!/");
       if (separatorIndex == -1) {
          return result + file.hashCode();
+      } else if (isSimpleFileSpec(file, separatorIndex)) {
+         result += FILE_PROTOCOL_HASH_CODE + hashCode(file, FILE_PROTOCOL.length(), separatorIndex) - 1;
+         return result + canonicalHashCode(file, separatorIndex + 2);
       } else {
          String source = file.substring(0, separatorIndex);
          String entry = this.canonicalize(file.substring(separatorIndex + 2));
@@ -230,11 +271,84 @@ public class Handler extends URLStreamHandler {
       }
    }
 
+   private static int hashCode(String file, int beginIndex, int endIndex) {
+      int hashCode = 0;
+
+      for(int i = beginIndex; i < endIndex; ++i) {
+         hashCode = 31 * hashCode + file.charAt(i);
+      }
+
+      return hashCode;
+   }
+
+   private static int canonicalHashCode(String file, int beginIndex) {
+      int hashCode = 0;
+      int length = file.length();
+
+      for(int i = beginIndex; i < length; ++i) {
+         char ch = file.charAt(i);
+         if (ch != '!' || i + 1 >= length || file.charAt(i + 1) != '/') {
+            hashCode = 31 * hashCode + ch;
+         }
+      }
+
+      return hashCode;
+   }
+
+   private static boolean canonicalEquals(String file1, int beginIndex1, String file2, int beginIndex2) {
+      int i = beginIndex1;
+      int j = beginIndex2;
+      int length1 = file1.length();
+      int length2 = file2.length();
+
+      while(true) {
+         if (i < length1 && file1.charAt(i) == '!' && i + 1 < length1 && file1.charAt(i + 1) == '/') {
+            ++i;
+         }
+
+         if (j < length2 && file2.charAt(j) == '!' && j + 1 < length2 && file2.charAt(j + 1) == '/') {
+            ++j;
+         }
+
+         if (i >= length1 || j >= length2) {
+            return i >= length1 && j >= length2;
+         }
+
+         if (file1.charAt(i++) != file2.charAt(j++)) {
+            return false;
+         }
+      }
+   }
+
+   private static boolean isSimpleFileSpec(String file, int endIndex) {
+      int beginIndex = FILE_PROTOCOL.length();
+      if (endIndex > beginIndex && file.startsWith(FILE_PROTOCOL) && file.charAt(beginIndex) == '/') {
+         if (endIndex > beginIndex + 1 && file.charAt(beginIndex + 1) == '/') {
+            return false;
+         } else {
+            for(int i = beginIndex; i < endIndex; ++i) {
+               char ch = file.charAt(i);
+               if (ch == '#' || ch == '?' || ch == '/' && i + 1 < endIndex && file.charAt(i + 1) == '.') {
+                  return false;
+               }
+            }
+
+            return true;
+         }
+      } else {
+         return false;
+      }
+   }
+
    protected boolean sameFile(URL u1, URL u2) {
       if (u1.getProtocol().equals("jar") && u2.getProtocol().equals("jar")) {
          int separator1 = u1.getFile().indexOf("!/");
          int separator2 = u2.getFile().indexOf("!/");
-         if (separator1 != -1 && separator2 != -1) {
+         if (separator1 != -1 && separator2 != -1 && isSimpleFileSpec(u1.getFile(), separator1) && isSimpleFileSpec(u2.getFile(), separator2)) {
+            return separator1 == separator2
+               && u1.getFile().regionMatches(0, u2.getFile(), 0, separator1)
+               && canonicalEquals(u1.getFile(), separator1 + "!/".length(), u2.getFile(), separator2 + "!/".length());
+         } else if (separator1 != -1 && separator2 != -1) {
             String nested1 = u1.getFile().substring(separator1 + "!/".length());
             String nested2 = u2.getFile().substring(separator2 + "!/".length());
             if (!nested1.equals(nested2)) {
@@ -352,4 +466,13 @@ public class Handler extends URLStreamHandler {
    public static void setUseFastConnectionExceptions(boolean useFastConnectionExceptions) {
       JarURLConnection.setUseFastExceptions(useFastConnectionExceptions);
    }
+
+   public static JarFile probeJarFile(URL url) {
+      try {
+         URLConnection connection = url.openConnection();
+         return connection instanceof JarURLConnection ? ((JarURLConnection)connection).probeJarFile() : null;
+      } catch (RuntimeException | IOException var2) {
+         return null;
+      }
+   }
 }
@@ -39,6 +39,14 @@ class JarEntry extends java.util.jar.JarEntry implements FileHeader {
       return this.index;
    }
 
+   JarFile getJarFile() {
+      return this.jarFile;
+   }
+
+   boolean hasNameAlias() {
+      return this.name != this.headerName;
+   }
+
    AsciiBytes getAsciiBytesName() {
       return this.name;
    }
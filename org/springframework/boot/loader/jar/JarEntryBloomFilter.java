@@ -0,0 +1,99 @@
+package org.springframework.boot.loader.jar;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class JarEntryBloomFilter {
+   private static final int BITS_PER_ENTRY = 12;
+   private static final int HASH_FUNCTIONS = 4;
+   private final long[] bits;
+   private final int mask;
+   private final LongAdder negatives = new LongAdder();
+   private final LongAdder falsePositives = new LongAdder();
+
+   JarEntryBloomFilter(int expectedSize) {
+      int size = 64;
+
+      while(size < expectedSize * BITS_PER_ENTRY && size < 1073741824) {
+         size <<= 1;
+      }
+
+      this.bits = new long[size >>> 6];
+      this.mask = size - 1;
+   }
+
+   JarEntryBloomFilter(int[] hashCodes, int size) {
+      this(size);
+
+      for(int i = 0; i < size; ++i) {
+         this.add(hashCodes[i]);
+      }
+
+   }
+
+   void add(int hashCode) {
+      int hash = mix(hashCode);
+      int delta = hash >>> 17 | hash << 15;
+
+      for(int i = 0; i < HASH_FUNCTIONS; ++i) {
+         int bit = hash & this.mask;
+         this.bits[bit >>> 6] |= 1L << bit;
+         hash += delta;
+      }
+
+   }
+
+   boolean mightContain(int hashCode) {
+      int hash = mix(hashCode);
+      int delta = hash >>> 17 | hash << 15;
+
+      for(int i = 0; i < HASH_FUNCTIONS; ++i) {
+         int bit = hash & this.mask;
+         if ((this.bits[bit >>> 6] & 1L << bit) == 0L) {
+            this.negatives.increment();
+            return false;
+         }
+
+         hash += delta;
+      }
+
+      return true;
+   }
+
+   void recordFalsePositive() {
+      this.falsePositives.increment();
+   }
+
+   public long getNegativeCount() {
+      return this.negatives.sum();
+   }
+
+   public long getFalsePositiveCount() {
+      return this.falsePositives.sum();
+   }
+
+   public double getFalsePositiveRate() {
+      long falsePositives = this.getFalsePositiveCount();
+      long total = falsePositives + this.getNegativeCount();
+      return total != 0L ? (double)falsePositives / (double)total : 0.0;
+   }
+
+   @Override
+   public String toString() {
+      return "JarEntryBloomFilter[bits="
+         + (this.mask + 1)
+         + ", negatives="
+         + this.getNegativeCount()
+         + ", falsePositives="
+         + this.getFalsePositiveCount()
+         + ", falsePositiveRate="
+         + this.getFalsePositiveRate()
+         + "]";
+   }
+
+   private static int mix(int hashCode) {
+      int hash = hashCode * -1640531527;
+      hash ^= hash >>> 16;
+      hash *= -2048144789;
+      return hash ^ hash >>> 13;
+   }
+}
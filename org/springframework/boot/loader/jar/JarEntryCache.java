@@ -0,0 +1,162 @@
+package org.springframework.boot.loader.jar;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.Manifest;
+import java.util.jar.Attributes.Name;
+
+public final class JarEntryCache {
+   static final String SIZE_PROPERTY = "loader.jar.entry-cache-size";
+   static final Name SIZE_ATTRIBUTE = new Name("Loader-Entry-Cache-Size");
+   private static final int DEFAULT_SIZE = 256;
+   private static final int WAYS = 2;
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
+   private volatile AtomicReferenceArray<JarEntryCache.Node> slots;
+
+   JarEntryCache() {
+      this(Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE));
+   }
+
+   JarEntryCache(int size) {
+      this.slots = createSlots(size);
+   }
+
+   FileHeader get(int index) {
+      AtomicReferenceArray<JarEntryCache.Node> slots = this.slots;
+      if (slots != null) {
+         int set = getSet(slots, index);
+
+         for(int way = 0; way < WAYS; ++way) {
+            JarEntryCache.Node node = (JarEntryCache.Node)slots.get(set + way);
+            if (node != null && node.index == index) {
+               if (!node.referenced) {
+                  node.referenced = true;
+               }
+
+               this.hits.increment();
+               return node.header;
+            }
+         }
+      }
+
+      this.misses.increment();
+      return null;
+   }
+
+   void put(int index, FileHeader header) {
+      AtomicReferenceArray<JarEntryCache.Node> slots = this.slots;
+      if (slots != null) {
+         int set = getSet(slots, index);
+         JarEntryCache.Node node = new JarEntryCache.Node(index, header);
+
+         for(int way = 0; way < WAYS; ++way) {
+            JarEntryCache.Node existing = (JarEntryCache.Node)slots.get(set + way);
+            if (existing == null) {
+               if (slots.compareAndSet(set + way, null, node)) {
+                  return;
+               }
+            } else if (existing.index == index) {
+               slots.lazySet(set + way, node);
+               return;
+            }
+         }
+
+         for(int attempt = 0; attempt < WAYS * 2; ++attempt) {
+            int slot = set + attempt % WAYS;
+            JarEntryCache.Node existing = (JarEntryCache.Node)slots.get(slot);
+            if (existing == null || !existing.referenced) {
+               if (slots.compareAndSet(slot, existing, node)) {
+                  if (existing != null) {
+                     this.evictions.increment();
+                  }
+
+                  return;
+               }
+            } else {
+               existing.referenced = false;
+            }
+         }
+
+      }
+   }
+
+   void clear() {
+      AtomicReferenceArray<JarEntryCache.Node> slots = this.slots;
+      if (slots != null) {
+         this.slots = new AtomicReferenceArray(slots.length());
+      }
+
+   }
+
+   void resize(int size) {
+      if (size != this.getCapacity()) {
+         this.slots = createSlots(size);
+      }
+
+   }
+
+   void configure(Manifest manifest) {
+      String size = manifest != null ? manifest.getMainAttributes().getValue(SIZE_ATTRIBUTE) : null;
+      if (size != null) {
+         try {
+            this.resize(Integer.parseInt(size.trim()));
+         } catch (NumberFormatException var4) {
+         }
+      }
+
+   }
+
+   public int getCapacity() {
+      AtomicReferenceArray<JarEntryCache.Node> slots = this.slots;
+      return slots != null ? slots.length() : 0;
+   }
+
+   public long getHitCount() {
+      return this.hits.sum();
+   }
+
+   public long getMissCount() {
+      return this.misses.sum();
+   }
+
+   public long getEvictionCount() {
+      return this.evictions.sum();
+   }
+
+   @Override
+   public String toString() {
+      return "JarEntryCache[capacity=" + this.getCapacity() + ", hits=" + this.getHitCount() + ", misses=" + this.getMissCount() + ", evictions=" + this.getEvictionCount() + "]";
+   }
+
+   private static int getSet(AtomicReferenceArray<JarEntryCache.Node> slots, int index) {
+      int mixed = index * -1640531527;
+      return (mixed ^ mixed >>> 16) & slots.length() - WAYS;
+   }
+
+   private static AtomicReferenceArray<JarEntryCache.Node> createSlots(int size) {
+      if (size <= 0) {
+         return null;
+      } else {
+         int capacity = WAYS;
+
+         while(capacity < size && capacity < 1073741824) {
+            capacity <<= 1;
+         }
+
+         return new AtomicReferenceArray(capacity);
+      }
+   }
+
+   private static final class Node {
+      private final int index;
+      private final FileHeader header;
+      private volatile boolean referenced;
+
+      private Node(int index, FileHeader header) {
+         this.index = index;
+         this.header = header;
+      }
+   }
+}
@@ -1,22 +1,32 @@
 package org.springframework.boot.loader.jar;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FilePermission;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.security.Permission;
 import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 import java.util.jar.Manifest;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import java.util.zip.ZipEntry;
+import org.springframework.boot.loader.data.ByteBufferRandomAccessData;
 import org.springframework.boot.loader.data.RandomAccessData;
 import org.springframework.boot.loader.data.RandomAccessDataFile;
 
@@ -27,9 +37,15 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
    private static final AsciiBytes META_INF = new AsciiBytes("META-INF/");
    private static final AsciiBytes SIGNATURE_FILE_EXTENSION = new AsciiBytes(".SF");
    private static final String READ_ACTION = "read";
+   private static final String USE_MAPPED_DATA_PROPERTY = "loader.jar.mapped";
+   private static final String IN_MEMORY_THRESHOLD_PROPERTY = "loader.jar.in-memory-nested-threshold";
+   private static final String IN_MEMORY_BUDGET_PROPERTY = "loader.jar.in-memory-nested-budget";
+   private static final long DEFAULT_IN_MEMORY_BUDGET = 67108864L;
+   private static final int COPY_BUFFER_SIZE = 65536;
+   private static final AtomicLong inMemoryNestedJarBytes = new AtomicLong();
    private final RandomAccessDataFile rootFile;
    private final String pathFromRoot;
-   private final RandomAccessData data;
+   private volatile RandomAccessData data;
    private final AbstractJarFile.JarFileType type;
    private URL url;
    private String urlString;
@@ -38,18 +54,23 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
    private SoftReference<Manifest> manifest;
    private boolean signed;
    private String comment;
-   private volatile boolean closed;
+   private final AtomicBoolean closed = new AtomicBoolean();
+   private boolean ownedByParent;
+   private final Map<Integer, JarFile> nestedJarFiles = new ConcurrentHashMap();
+   private final LongAdder avoidedNestedJarFileOpens = new LongAdder();
+   private final JarURLConnection.ResolvedCache resolvedCache = new JarURLConnection.ResolvedCache();
+   private long inMemorySize;
 
    public JarFile(File file) throws IOException {
       this(new RandomAccessDataFile(file));
    }
 
    JarFile(RandomAccessDataFile file) throws IOException {
-      this(file, "", file, AbstractJarFile.JarFileType.DIRECT);
+      this(file, "", getRootData(file), AbstractJarFile.JarFileType.DIRECT);
    }
 
    private JarFile(RandomAccessDataFile rootFile, String pathFromRoot, RandomAccessData data, AbstractJarFile.JarFileType type) throws IOException {
-      this(rootFile, pathFromRoot, data, null, type, null);
+      this(rootFile, pathFromRoot, data, null, type, null, null);
    }
 
    private JarFile(
@@ -58,19 +79,20 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
       RandomAccessData data,
       JarEntryFilter filter,
       AbstractJarFile.JarFileType type,
-      Supplier<Manifest> manifestSupplier
+      Supplier<Manifest> manifestSupplier,
+      JarFileEntries sharedEntries
    ) throws IOException {
       super(rootFile.getFile());
       super.close();
       this.rootFile = rootFile;
       this.pathFromRoot = pathFromRoot;
       CentralDirectoryParser parser = new CentralDirectoryParser();
-      this.entries = parser.addVisitor(new JarFileEntries(this, filter));
+      this.entries = parser.addVisitor(new JarFileEntries(this, filter, sharedEntries));
       this.type = type;
       parser.addVisitor(this.centralDirectoryVisitor());
 
       try {
-         this.data = parser.parse(data, filter == null);
+         this.data = this.parse(parser, data, filter);
       } catch (RuntimeException var9) {
          this.close();
          throw var9;
@@ -113,6 +135,40 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
       };
    }
 
+   private RandomAccessData parse(CentralDirectoryParser parser, RandomAccessData data, JarEntryFilter filter) throws IOException {
+      CentralDirectoryIndex index = CentralDirectoryIndex.get(this.rootFile);
+      if (index == null) {
+         return parser.parse(data, filter == null);
+      } else {
+         CentralDirectoryIndex.Entry indexEntry = index.getEntry(this.pathFromRoot);
+         if (indexEntry != null) {
+            CentralDirectoryEndRecord endRecord = new CentralDirectoryEndRecord(data);
+            if (indexEntry.getSize() <= endRecord.getNumberOfRecords()) {
+               RandomAccessData archiveData = filter == null ? CentralDirectoryParser.getArchiveData(endRecord, data) : data;
+               this.entries.restore(endRecord.getCentralDirectory(archiveData), indexEntry);
+               this.comment = endRecord.getComment();
+               this.signed = indexEntry.isSigned();
+               return archiveData;
+            }
+         }
+
+         RandomAccessData archiveData = parser.parse(data, filter == null);
+         index.addEntry(this.pathFromRoot, this.entries.toIndexEntry(this.signed));
+         return archiveData;
+      }
+   }
+
+   private static RandomAccessData getRootData(RandomAccessDataFile file) {
+      if (Boolean.getBoolean(USE_MAPPED_DATA_PROPERTY)) {
+         try {
+            return ByteBufferRandomAccessData.map(file.getFile());
+         } catch (IOException | RuntimeException var2) {
+         }
+      }
+
+      return file;
+   }
+
    private CentralDirectoryVisitor centralDirectoryVisitor() {
       return new CentralDirectoryVisitor() {
          @Override
@@ -145,7 +201,12 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
    }
 
    RandomAccessData getData() {
-      return this.data;
+      RandomAccessData data = this.data;
+      if (data == null) {
+         throw new IllegalStateException("zip file closed");
+      } else {
+         return data;
+      }
    }
 
    public Manifest getManifest() throws IOException {
@@ -158,6 +219,7 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
          }
 
          this.manifest = new SoftReference(manifest);
+         this.entries.getEntryCache().configure(manifest);
       }
 
       return manifest;
@@ -195,7 +257,7 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 
    @Override
    InputStream getInputStream() throws IOException {
-      return this.data.getInputStream();
+      return this.getData().getInputStream();
    }
 
    public synchronized InputStream getInputStream(ZipEntry entry) throws IOException {
@@ -203,24 +265,68 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
       return entry instanceof JarEntry ? this.entries.getInputStream((JarEntry)entry) : this.getInputStream(entry != null ? entry.getName() : null);
    }
 
+   public CompletableFuture<ByteBuffer> getBytesAsync(ZipEntry entry) {
+      this.ensureOpen();
+      JarEntry header = entry instanceof JarEntry ? (JarEntry)entry : (entry != null ? this.entries.getEntry(entry.getName()) : null);
+      if (header == null) {
+         return CompletableFuture.completedFuture(null);
+      } else if (header.getSize() > 2147483639L) {
+         CompletableFuture<ByteBuffer> result = new CompletableFuture();
+         result.completeExceptionally(new IOException("Entry '" + header.getName() + "' is too large to read into a buffer"));
+         return result;
+      } else {
+         return this.entries.readEntryAsync(header);
+      }
+   }
+
    InputStream getInputStream(String name) throws IOException {
       return this.entries.getInputStream(name);
    }
 
-   public synchronized JarFile getNestedJarFile(ZipEntry entry) throws IOException {
+   public JarFile getNestedJarFile(ZipEntry entry) throws IOException {
       return this.getNestedJarFile((JarEntry)entry);
    }
 
-   public synchronized JarFile getNestedJarFile(JarEntry entry) throws IOException {
+   public JarFile getNestedJarFile(JarEntry entry) throws IOException {
       try {
-         return this.createJarFileFromEntry(entry);
+         return this.isNestedJarFileCacheable(entry) ? this.getCachedNestedJarFile(entry) : this.createJarFileFromEntry(entry, false);
       } catch (Exception var3) {
          throw new IOException("Unable to open nested jar file '" + entry.getName() + "'", var3);
       }
    }
 
-   private JarFile createJarFileFromEntry(JarEntry entry) throws IOException {
-      return entry.isDirectory() ? this.createJarFileFromDirectoryEntry(entry) : this.createJarFileFromFileEntry(entry);
+   private boolean isNestedJarFileCacheable(JarEntry entry) {
+      return entry.getJarFile() == this && !entry.hasNameAlias() && !this.closed.get();
+   }
+
+   private JarFile getCachedNestedJarFile(JarEntry entry) throws IOException {
+      JarFile nestedJarFile = (JarFile)this.nestedJarFiles.get(entry.getIndex());
+      if (nestedJarFile != null) {
+         this.avoidedNestedJarFileOpens.increment();
+         return nestedJarFile;
+      } else {
+         try {
+            return (JarFile)this.nestedJarFiles.computeIfAbsent(entry.getIndex(), index -> {
+               try {
+                  JarFile created = this.createJarFileFromEntry(entry, true);
+                  created.ownedByParent = true;
+                  return created;
+               } catch (IOException var4) {
+                  throw new UncheckedIOException(var4);
+               }
+            });
+         } catch (UncheckedIOException var4) {
+            throw var4.getCause();
+         }
+      }
+   }
+
+   public long getAvoidedNestedJarFileOpenCount() {
+      return this.avoidedNestedJarFileOpens.sum();
+   }
+
+   private JarFile createJarFileFromEntry(JarEntry entry, boolean inMemory) throws IOException {
+      return entry.isDirectory() ? this.createJarFileFromDirectoryEntry(entry) : this.createJarFileFromFileEntry(entry, inMemory);
    }
 
    private JarFile createJarFileFromDirectoryEntry(JarEntry entry) throws IOException {
@@ -229,14 +335,15 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
       return new JarFile(
          this.rootFile,
          this.pathFromRoot + "!/" + entry.getName().substring(0, name.length() - 1),
-         this.data,
+         this.getData(),
          filter,
          AbstractJarFile.JarFileType.NESTED_DIRECTORY,
-         this.manifestSupplier
+         this.manifestSupplier,
+         this.entries
       );
    }
 
-   private JarFile createJarFileFromFileEntry(JarEntry entry) throws IOException {
+   private JarFile createJarFileFromFileEntry(JarEntry entry, boolean inMemory) throws IOException {
       if (entry.getMethod() != 0) {
          throw new IllegalStateException(
             "Unable to open nested entry '"
@@ -244,11 +351,70 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
                + "'. It has been compressed and nested jar files must be stored without compression. Please check the mechanism used to create your executable jar file"
          );
       } else {
-         RandomAccessData entryData = this.entries.getEntryData(entry.getName());
-         return new JarFile(this.rootFile, this.pathFromRoot + "!/" + entry.getName(), entryData, AbstractJarFile.JarFileType.NESTED_JAR);
+         RandomAccessData entryData = this.entries.getEntryData(entry);
+         long inMemorySize = inMemory && !(this.getData() instanceof ByteBufferRandomAccessData) && reserveInMemory(entryData.getSize()) ? entryData.getSize() : 0L;
+
+         try {
+            if (inMemorySize > 0L) {
+               entryData = loadInMemory(entryData);
+            }
+
+            JarFile jarFile = new JarFile(this.rootFile, this.pathFromRoot + "!/" + entry.getName(), entryData, AbstractJarFile.JarFileType.NESTED_JAR);
+            jarFile.inMemorySize = inMemorySize;
+            return jarFile;
+         } catch (RuntimeException | IOException var5) {
+            inMemoryNestedJarBytes.addAndGet(-inMemorySize);
+            throw var5;
+         }
+      }
+   }
+
+   private static boolean reserveInMemory(long size) {
+      long threshold = Long.getLong(IN_MEMORY_THRESHOLD_PROPERTY, 0L);
+      if (size > 0L && size <= threshold) {
+         long budget = Long.getLong(IN_MEMORY_BUDGET_PROPERTY, DEFAULT_IN_MEMORY_BUDGET);
+
+         long current;
+         do {
+            current = inMemoryNestedJarBytes.get();
+            if (current + size > budget) {
+               return false;
+            }
+         } while(!inMemoryNestedJarBytes.compareAndSet(current, current + size));
+
+         return true;
+      } else {
+         return false;
       }
    }
 
+   private static RandomAccessData loadInMemory(RandomAccessData data) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocateDirect((int)data.getSize());
+      InputStream inputStream = data.getInputStream();
+
+      try {
+         byte[] bytes = new byte[(int)Math.min((long)COPY_BUFFER_SIZE, data.getSize())];
+
+         int bytesRead;
+         while(buffer.hasRemaining() && (bytesRead = inputStream.read(bytes, 0, Math.min(bytes.length, buffer.remaining()))) > 0) {
+            buffer.put(bytes, 0, bytesRead);
+         }
+      } finally {
+         inputStream.close();
+      }
+
+      if (buffer.hasRemaining()) {
+         throw new EOFException();
+      } else {
+         buffer.flip();
+         return new ByteBufferRandomAccessData(buffer);
+      }
+   }
+
+   public static long getInMemoryNestedJarBytes() {
+      return inMemoryNestedJarBytes.get();
+   }
+
    public String getComment() {
       this.ensureOpen();
       return this.comment;
@@ -260,8 +426,26 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
    }
 
    public void close() throws IOException {
-      if (!this.closed) {
-         this.closed = true;
+      if (!this.ownedByParent) {
+         this.closeJarFile();
+      }
+
+   }
+
+   private void closeJarFile() throws IOException {
+      if (this.closed.compareAndSet(false, true)) {
+         for(JarFile nestedJarFile : this.nestedJarFiles.values()) {
+            nestedJarFile.closeJarFile();
+         }
+
+         this.nestedJarFiles.clear();
+         this.resolvedCache.clear();
+         this.entries.close();
+         this.data = null;
+         if (this.inMemorySize > 0L) {
+            inMemoryNestedJarBytes.addAndGet(-this.inMemorySize);
+         }
+
          if (this.type == AbstractJarFile.JarFileType.DIRECT) {
             this.rootFile.close();
          }
@@ -270,13 +454,13 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
    }
 
    private void ensureOpen() {
-      if (this.closed) {
+      if (this.closed.get()) {
          throw new IllegalStateException("zip file closed");
       }
    }
 
    boolean isClosed() {
-      return this.closed;
+      return this.closed.get();
    }
 
    String getUrlString() throws MalformedURLException {
@@ -320,6 +504,23 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 
    public void clearCache() {
       this.entries.clearCache();
+      this.resolvedCache.clear();
+   }
+
+   JarURLConnection.ResolvedCache getResolvedCache() {
+      return this.resolvedCache;
+   }
+
+   JarFileEntries getEntries() {
+      return this.entries;
+   }
+
+   public JarEntryCache getEntryCache() {
+      return this.entries.getEntryCache();
+   }
+
+   public JarEntryBloomFilter getBloomFilter() {
+      return this.entries.getBloomFilter();
    }
 
    protected String getPathFromRoot() {
@@ -331,6 +532,10 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
       return this.type;
    }
 
+   public static void saveCentralDirectoryIndexes() {
+      CentralDirectoryIndex.saveAll();
+   }
+
    public static void registerUrlProtocolHandler() {
       Handler.captureJarContextUrl();
       String handlers = System.getProperty("java.protocol.handler.pkgs", "");
@@ -1,14 +1,16 @@
 package org.springframework.boot.loader.jar;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
 import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
@@ -25,25 +27,38 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
    private static final long LOCAL_FILE_HEADER_SIZE = 30L;
    private static final char SLASH = '/';
    private static final char NO_SUFFIX = '\u0000';
-   protected static final int ENTRY_CACHE_SIZE = 25;
+   private static final int INITIAL_FILTERED_CAPACITY = 16;
+   private static final int COPY_BUFFER_SIZE = 65536;
+   private static final String PARALLEL_THRESHOLD_PROPERTY = "loader.jar.parallel-index-threshold";
+   private static final int DEFAULT_PARALLEL_THRESHOLD = 16384;
    private final JarFile jarFile;
    private final JarEntryFilter filter;
+   private final JarFileEntries sharedEntries;
    private RandomAccessData centralDirectoryData;
+   private volatile ByteBuffer centralDirectory;
+   private volatile MultiReleaseEntryAliases multiReleaseAliases;
    private int size;
    private int[] hashCodes;
    private int[] centralDirectoryOffsets;
    private int[] positions;
+   private int[] localHeaderSizes;
+   private int[] tableHashCodes;
+   private long[] tableEntries;
+   private int tableMask;
+   private boolean parallel;
+   private JarEntryBloomFilter bloomFilter;
    private Boolean multiReleaseJar;
    private JarEntryCertification[] certifications;
-   private final Map<Integer, FileHeader> entriesCache = Collections.synchronizedMap(new LinkedHashMap<Integer, FileHeader>(16, 0.75F, true) {
-      protected boolean removeEldestEntry(Entry<Integer, FileHeader> eldest) {
-         return this.size() >= 25;
-      }
-   });
+   private final JarEntryCache entriesCache = new JarEntryCache();
 
    JarFileEntries(JarFile jarFile, JarEntryFilter filter) {
+      this(jarFile, filter, null);
+   }
+
+   JarFileEntries(JarFile jarFile, JarEntryFilter filter, JarFileEntries sharedEntries) {
       this.jarFile = jarFile;
       this.filter = filter;
+      this.sharedEntries = sharedEntries;
       if (RUNTIME_VERSION == 8) {
          this.multiReleaseJar = false;
       }
@@ -53,87 +68,145 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
    @Override
    public void visitStart(CentralDirectoryEndRecord endRecord, RandomAccessData centralDirectoryData) {
       int maxSize = endRecord.getNumberOfRecords();
+      int initialCapacity = this.filter != null ? Math.min(maxSize, INITIAL_FILTERED_CAPACITY) : maxSize;
       this.centralDirectoryData = centralDirectoryData;
-      this.hashCodes = new int[maxSize];
-      this.centralDirectoryOffsets = new int[maxSize];
-      this.positions = new int[maxSize];
+      this.centralDirectory = null;
+      this.multiReleaseAliases = null;
+      int parallelThreshold = Integer.getInteger(PARALLEL_THRESHOLD_PROPERTY, DEFAULT_PARALLEL_THRESHOLD);
+      this.parallel = this.filter == null && parallelThreshold > 0 && maxSize >= parallelThreshold;
+      this.hashCodes = new int[initialCapacity];
+      this.centralDirectoryOffsets = new int[initialCapacity];
+      this.positions = new int[initialCapacity];
    }
 
    @Override
    public void visitFileHeader(CentralDirectoryFileHeader fileHeader, int dataOffset) {
-      AsciiBytes name = this.applyFilter(fileHeader.getName());
-      if (name != null) {
-         this.add(name, dataOffset);
+      if (this.parallel) {
+         this.add(0, dataOffset);
+      } else {
+         AsciiBytes name = this.applyFilter(fileHeader.getName());
+         if (name != null) {
+            this.add(name.hashCode(), dataOffset);
+         }
       }
 
    }
 
-   private void add(AsciiBytes name, int dataOffset) {
-      this.hashCodes[this.size] = name.hashCode();
+   private void add(int hashCode, int dataOffset) {
+      if (this.size == this.hashCodes.length) {
+         int capacity = Math.max(this.size * 2, INITIAL_FILTERED_CAPACITY);
+         this.hashCodes = Arrays.copyOf(this.hashCodes, capacity);
+         this.centralDirectoryOffsets = Arrays.copyOf(this.centralDirectoryOffsets, capacity);
+         this.positions = Arrays.copyOf(this.positions, capacity);
+      }
+
+      this.hashCodes[this.size] = hashCode;
       this.centralDirectoryOffsets[this.size] = dataOffset;
       this.positions[this.size] = this.size++;
    }
 
    @Override
    public void visitEnd() {
-      this.sort(0, this.size - 1);
-      int[] positions = this.positions;
-      this.positions = new int[positions.length];
-      int i = 0;
+      if (this.parallel) {
+         ByteBuffer centralDirectory = this.getCentralDirectory();
+         int[] hashCodes = this.hashCodes;
+         int[] centralDirectoryOffsets = this.centralDirectoryOffsets;
+         IntStream.range(0, this.size).parallel().forEach(index -> hashCodes[index] = CentralDirectoryFileHeaderView.hashName(centralDirectory, centralDirectoryOffsets[index]));
+      }
+
+      long[] keys = new long[this.size];
 
-      while(i < this.size) {
-         this.positions[positions[i]] = i++;
+      for(int i = 0; i < this.size; ++i) {
+         keys[i] = (long)this.hashCodes[i] << 32 | (long)i;
       }
 
-   }
+      if (this.parallel) {
+         Arrays.parallelSort(keys);
+      } else {
+         Arrays.sort(keys);
+      }
 
-   int getSize() {
-      return this.size;
+      int[] hashCodes = new int[this.size];
+      int[] centralDirectoryOffsets = new int[this.size];
+      this.positions = new int[this.size];
+
+      for(int i = 0; i < this.size; ++i) {
+         int position = (int)keys[i];
+         hashCodes[i] = (int)(keys[i] >> 32);
+         centralDirectoryOffsets[i] = this.centralDirectoryOffsets[position];
+         this.positions[position] = i;
+      }
+
+      this.hashCodes = hashCodes;
+      this.centralDirectoryOffsets = centralDirectoryOffsets;
+      this.localHeaderSizes = new int[this.size];
+      this.bloomFilter = new JarEntryBloomFilter(this.hashCodes, this.size);
+      this.buildTable();
    }
 
-   private void sort(int left, int right) {
-      if (left < right) {
-         int pivot = this.hashCodes[left + (right - left) / 2];
-         int i = left;
-         int j = right;
+   private void buildTable() {
+      int capacity = 2;
 
-         while(i <= j) {
-            while(this.hashCodes[i] < pivot) {
-               ++i;
-            }
+      while(capacity < this.size * 2) {
+         capacity <<= 1;
+      }
 
-            while(this.hashCodes[j] > pivot) {
-               --j;
-            }
+      this.tableHashCodes = new int[capacity];
+      this.tableEntries = new long[capacity];
+      this.tableMask = capacity - 1;
+      Arrays.fill(this.tableEntries, -1L);
 
-            if (i <= j) {
-               this.swap(i, j);
-               ++i;
-               --j;
-            }
-         }
+      for(int index = 0; index < this.size; ++index) {
+         int slot = this.getSlot(this.hashCodes[index]);
 
-         if (left < j) {
-            this.sort(left, j);
+         while(this.tableEntries[slot] != -1L) {
+            slot = slot + 1 & this.tableMask;
          }
 
-         if (right > i) {
-            this.sort(i, right);
+         this.tableHashCodes[slot] = this.hashCodes[index];
+         this.tableEntries[slot] = (long)this.centralDirectoryOffsets[index] << 32 | (long)index;
+      }
+
+   }
+
+   private int getSlot(int hashCode) {
+      int mixed = hashCode * -1640531527;
+      return (mixed ^ mixed >>> 16) & this.tableMask;
+   }
+
+   private int getNextSlot(int hashCode, int slot) {
+      while(this.tableEntries[slot] != -1L) {
+         if (this.tableHashCodes[slot] == hashCode) {
+            return slot;
          }
+
+         slot = slot + 1 & this.tableMask;
       }
 
+      return -1;
+   }
+
+   void restore(RandomAccessData centralDirectoryData, CentralDirectoryIndex.Entry indexEntry) {
+      this.centralDirectoryData = centralDirectoryData;
+      this.centralDirectory = null;
+      this.multiReleaseAliases = null;
+      this.size = indexEntry.getSize();
+      this.hashCodes = indexEntry.getHashCodes();
+      this.centralDirectoryOffsets = indexEntry.getCentralDirectoryOffsets();
+      this.positions = indexEntry.getPositions();
+      this.localHeaderSizes = new int[this.size];
+      this.bloomFilter = new JarEntryBloomFilter(this.hashCodes, this.size);
+      this.buildTable();
    }
 
-   private void swap(int i, int j) {
-      this.swap(this.hashCodes, i, j);
-      this.swap(this.centralDirectoryOffsets, i, j);
-      this.swap(this.positions, i, j);
+   CentralDirectoryIndex.Entry toIndexEntry(boolean signed) {
+      return new CentralDirectoryIndex.Entry(
+         signed, this.size, Arrays.copyOf(this.hashCodes, this.size), Arrays.copyOf(this.centralDirectoryOffsets, this.size), Arrays.copyOf(this.positions, this.size)
+      );
    }
 
-   private void swap(int[] array, int i, int j) {
-      int temp = array[i];
-      array[i] = array[j];
-      array[j] = temp;
+   int getSize() {
+      return this.size;
    }
 
    public Iterator<JarEntry> iterator() {
@@ -175,38 +248,107 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
       return entry == null ? null : this.getEntryData(entry);
    }
 
-   private RandomAccessData getEntryData(FileHeader entry) throws IOException {
+   RandomAccessData getEntryData(FileHeader entry) throws IOException {
+      RandomAccessData data = this.jarFile.getData();
+      return data.getSubsection(entry.getLocalHeaderOffset() + (long)this.getLocalHeaderSize(data, entry), entry.getCompressedSize());
+   }
+
+   CompletableFuture<ByteBuffer> readEntryAsync(FileHeader entry) {
       RandomAccessData data = this.jarFile.getData();
-      byte[] localHeader = data.read(entry.getLocalHeaderOffset(), 30L);
-      long nameLength = Bytes.littleEndianValue(localHeader, 26, 2);
-      long extraLength = Bytes.littleEndianValue(localHeader, 28, 2);
-      return data.getSubsection(entry.getLocalHeaderOffset() + 30L + nameLength + extraLength, entry.getCompressedSize());
+      int index = this.getIndex(entry);
+      int localHeaderSize = index >= 0 ? this.localHeaderSizes[index] : 0;
+      CompletableFuture<ByteBuffer> compressed;
+      if (localHeaderSize != 0) {
+         compressed = data.readAsync(entry.getLocalHeaderOffset() + (long)localHeaderSize, entry.getCompressedSize());
+      } else {
+         compressed = data.readAsync(entry.getLocalHeaderOffset(), 30L).thenCompose(localHeader -> {
+            int size = 30 + (localHeader.get(26) & 255 | (localHeader.get(27) & 255) << 8) + (localHeader.get(28) & 255 | (localHeader.get(29) & 255) << 8);
+            if (index >= 0) {
+               this.localHeaderSizes[index] = size;
+            }
+
+            return data.readAsync(entry.getLocalHeaderOffset() + (long)size, entry.getCompressedSize());
+         });
+      }
+
+      return entry.getMethod() != 8 ? compressed : compressed.thenApply(bytes -> {
+         try {
+            return ZipInflaterInputStream.inflate(bytes, (int)entry.getSize());
+         } catch (IOException var3) {
+            throw new CompletionException(var3);
+         }
+      });
+   }
+
+   private int getIndex(FileHeader entry) {
+      if (entry instanceof JarEntry) {
+         return ((JarEntry)entry).getIndex();
+      } else {
+         return entry instanceof CentralDirectoryFileHeaderView ? ((CentralDirectoryFileHeaderView)entry).getIndex() : ((CentralDirectoryFileHeader)entry).getIndex();
+      }
+   }
+
+   private int getLocalHeaderSize(RandomAccessData data, FileHeader entry) throws IOException {
+      int index = this.getIndex(entry);
+      int localHeaderSize = index >= 0 ? this.localHeaderSizes[index] : 0;
+      if (localHeaderSize == 0) {
+         byte[] localHeader = data.read(entry.getLocalHeaderOffset(), 30L);
+         long nameLength = Bytes.littleEndianValue(localHeader, 26, 2);
+         long extraLength = Bytes.littleEndianValue(localHeader, 28, 2);
+         localHeaderSize = (int)(30L + nameLength + extraLength);
+         if (index >= 0) {
+            this.localHeaderSizes[index] = localHeaderSize;
+         }
+      }
+
+      return localHeaderSize;
    }
 
    private <T extends FileHeader> T getEntry(CharSequence name, Class<T> type, boolean cacheEntry) {
       T entry = this.doGetEntry(name, type, cacheEntry, null);
       if (!this.isMetaInfEntry(name) && this.isMultiReleaseJar()) {
-         int version = RUNTIME_VERSION;
-
-         for(AsciiBytes nameAlias = entry instanceof JarEntry ? ((JarEntry)entry).getAsciiBytesName() : new AsciiBytes(name.toString());
-            version > 8;
-            --version
-         ) {
-            T versionedEntry = this.doGetEntry("META-INF/versions/" + version + "/" + name, type, cacheEntry, nameAlias);
-            if (versionedEntry != null) {
-               return versionedEntry;
-            }
+         int index = this.getMultiReleaseAliases().findIndex(name);
+         if (index != -1) {
+            AsciiBytes nameAlias = entry instanceof JarEntry ? ((JarEntry)entry).getAsciiBytesName() : new AsciiBytes(name.toString());
+            return this.getEntry(index, type, cacheEntry, nameAlias);
          }
       }
 
       return entry;
    }
 
+   private MultiReleaseEntryAliases getMultiReleaseAliases() {
+      MultiReleaseEntryAliases multiReleaseAliases = this.multiReleaseAliases;
+      if (multiReleaseAliases == null) {
+         ByteBuffer centralDirectory = this.getCentralDirectory();
+         AsciiBytes[] names = new AsciiBytes[this.size];
+         int[] indexes = new int[this.size];
+         int count = 0;
+
+         try {
+            for(int i = 0; i < this.size; ++i) {
+               int centralDirectoryOffset = this.centralDirectoryOffsets[i];
+               if (this.filter != null || CentralDirectoryFileHeaderView.startsWith(centralDirectory, centralDirectoryOffset, "META-INF/versions/")) {
+                  names[count] = new CentralDirectoryFileHeaderView(centralDirectory, centralDirectoryOffset, i).toFileHeader(this.filter).getName();
+                  indexes[count++] = i;
+               }
+            }
+         } catch (IOException var7) {
+            throw new IllegalStateException(var7);
+         }
+
+         multiReleaseAliases = new MultiReleaseEntryAliases(names, indexes, count, RUNTIME_VERSION);
+         this.multiReleaseAliases = multiReleaseAliases;
+      }
+
+      return multiReleaseAliases;
+   }
+
    private boolean isMetaInfEntry(CharSequence name) {
       return name.toString().startsWith("META-INF/");
    }
 
-   private boolean isMultiReleaseJar() {
+   boolean isMultiReleaseJar() {
       Boolean multiRelease = this.multiReleaseJar;
       if (multiRelease != null) {
          return multiRelease;
@@ -240,24 +382,43 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
    }
 
    private <T extends FileHeader> T getEntry(int hashCode, CharSequence name, char suffix, Class<T> type, boolean cacheEntry, AsciiBytes nameAlias) {
-      for(int index = this.getFirstIndex(hashCode); index >= 0 && index < this.size && this.hashCodes[index] == hashCode; ++index) {
-         T entry = this.getEntry(index, type, cacheEntry, nameAlias);
-         if (entry.hasName(name, suffix)) {
-            return entry;
+      if (!this.bloomFilter.mightContain(hashCode)) {
+         return null;
+      }
+
+      for(int slot = this.getNextSlot(hashCode, this.getSlot(hashCode)); slot != -1; slot = this.getNextSlot(hashCode, slot + 1 & this.tableMask)) {
+         long tableEntry = this.tableEntries[slot];
+         int index = (int)tableEntry;
+         int centralDirectoryOffset = (int)(tableEntry >>> 32);
+         if (this.filter == null) {
+            if (CentralDirectoryFileHeaderView.hasName(this.getCentralDirectory(), centralDirectoryOffset, name, suffix)) {
+               return this.getEntry(index, centralDirectoryOffset, type, cacheEntry, nameAlias);
+            }
+         } else {
+            T entry = this.getEntry(index, centralDirectoryOffset, type, cacheEntry, nameAlias);
+            if (entry.hasName(name, suffix)) {
+               return entry;
+            }
          }
       }
 
+      this.bloomFilter.recordFalsePositive();
       return null;
    }
 
    private <T extends FileHeader> T getEntry(int index, Class<T> type, boolean cacheEntry, AsciiBytes nameAlias) {
+      return this.getEntry(index, this.centralDirectoryOffsets[index], type, cacheEntry, nameAlias);
+   }
+
+   private <T extends FileHeader> T getEntry(int index, int centralDirectoryOffset, Class<T> type, boolean cacheEntry, AsciiBytes nameAlias) {
       try {
-         FileHeader cached = (FileHeader)this.entriesCache.get(index);
-         FileHeader entry = (FileHeader)(cached != null
-            ? cached
-            : CentralDirectoryFileHeader.fromRandomAccessData(this.centralDirectoryData, this.centralDirectoryOffsets[index], this.filter));
-         if (CentralDirectoryFileHeader.class.equals(entry.getClass()) && type.equals(JarEntry.class)) {
-            entry = new JarEntry(this.jarFile, index, (CentralDirectoryFileHeader)entry, nameAlias);
+         FileHeader cached = this.entriesCache.get(index);
+         FileHeader entry = (FileHeader)(cached != null ? cached : this.readEntry(index, centralDirectoryOffset));
+         if (!(entry instanceof JarEntry) && type.equals(JarEntry.class)) {
+            CentralDirectoryFileHeader header = entry instanceof CentralDirectoryFileHeaderView
+               ? ((CentralDirectoryFileHeaderView)entry).toFileHeader(this.filter)
+               : (CentralDirectoryFileHeader)entry;
+            entry = new JarEntry(this.jarFile, index, header, nameAlias);
          }
 
          if (cacheEntry && cached != entry) {
@@ -270,23 +431,75 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
       }
    }
 
-   private int getFirstIndex(int hashCode) {
-      int index = Arrays.binarySearch(this.hashCodes, 0, this.size, hashCode);
-      if (index < 0) {
-         return -1;
-      } else {
-         while(index > 0 && this.hashCodes[index - 1] == hashCode) {
-            --index;
+   private FileHeader readEntry(int index, int centralDirectoryOffset) throws IOException {
+      CentralDirectoryFileHeaderView view = new CentralDirectoryFileHeaderView(this.getCentralDirectory(), centralDirectoryOffset, index);
+      return (FileHeader)(this.filter == null ? view : view.toFileHeader(this.filter));
+   }
+
+   private ByteBuffer getCentralDirectory() {
+      ByteBuffer centralDirectory = this.centralDirectory;
+      if (centralDirectory == null) {
+         RandomAccessData centralDirectoryData = this.centralDirectoryData;
+         if (centralDirectoryData == null) {
+            throw new IllegalStateException("zip file closed");
          }
 
-         return index;
+         if (this.sharedEntries != null) {
+            centralDirectory = this.sharedEntries.getCentralDirectory().asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+            this.centralDirectory = centralDirectory;
+            return centralDirectory;
+         }
+
+         try {
+            centralDirectory = ByteBuffer.allocateDirect((int)centralDirectoryData.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+            InputStream inputStream = centralDirectoryData.getInputStream();
+
+            try {
+               byte[] buffer = new byte[(int)Math.min((long)COPY_BUFFER_SIZE, centralDirectoryData.getSize())];
+
+               int bytesRead;
+               while(centralDirectory.hasRemaining() && (bytesRead = inputStream.read(buffer, 0, Math.min(buffer.length, centralDirectory.remaining()))) > 0) {
+                  centralDirectory.put(buffer, 0, bytesRead);
+               }
+            } finally {
+               inputStream.close();
+            }
+
+            if (centralDirectory.hasRemaining()) {
+               throw new EOFException();
+            }
+
+            this.centralDirectory = centralDirectory;
+         } catch (IOException var8) {
+            throw new IllegalStateException(var8);
+         }
       }
+
+      return centralDirectory;
    }
 
    void clearCache() {
       this.entriesCache.clear();
    }
 
+   void close() {
+      this.centralDirectoryData = null;
+      this.centralDirectory = null;
+      this.entriesCache.clear();
+   }
+
+   int[] getHashCodes() {
+      return this.hashCodes;
+   }
+
+   JarEntryCache getEntryCache() {
+      return this.entriesCache;
+   }
+
+   JarEntryBloomFilter getBloomFilter() {
+      return this.bloomFilter;
+   }
+
    private AsciiBytes applyFilter(AsciiBytes name) {
       return this.filter != null ? this.filter.apply(name) : name;
    }
@@ -336,7 +549,8 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
    private int getEntryIndex(CharSequence name) {
       int hashCode = AsciiBytes.hashCode(name);
 
-      for(int index = this.getFirstIndex(hashCode); index >= 0 && index < this.size && this.hashCodes[index] == hashCode; ++index) {
+      for(int slot = this.getNextSlot(hashCode, this.getSlot(hashCode)); slot != -1; slot = this.getNextSlot(hashCode, slot + 1 & this.tableMask)) {
+         int index = (int)this.tableEntries[slot];
          FileHeader candidate = this.getEntry(index, FileHeader.class, false, null);
          if (candidate.hasName(name, '\u0000')) {
             return index;
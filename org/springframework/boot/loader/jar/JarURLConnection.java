@@ -11,12 +11,16 @@ import java.net.URLConnection;
 import java.net.URLEncoder;
 import java.net.URLStreamHandler;
 import java.security.Permission;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 final class JarURLConnection extends java.net.JarURLConnection {
    private static ThreadLocal<Boolean> useFastExceptions = new ThreadLocal();
    private static final FileNotFoundException FILE_NOT_FOUND_EXCEPTION = new FileNotFoundException("Jar file or entry not found");
    private static final IllegalStateException NOT_FOUND_CONNECTION_EXCEPTION = new IllegalStateException(FILE_NOT_FOUND_EXCEPTION);
    private static final String SEPARATOR = "!/";
+   private static final int RESOLVED_CACHE_SIZE = 256;
    private static final URL EMPTY_JAR_URL;
    private static final JarURLConnection.JarEntryName EMPTY_JAR_ENTRY_NAME;
    private static final JarURLConnection NOT_FOUND_CONNECTION;
@@ -146,6 +150,14 @@ final class JarURLConnection extends java.net.JarURLConnection {
       return this.jarEntryName.isEmpty() ? this.jarFile : super.getContent();
    }
 
+   JarFile probeJarFile() {
+      if (this.jarFile != null && this.jarEntryName != null && this.jarEntryName.isEmpty()) {
+         return !(this.jarFile instanceof JarFile) && !(this.jarFile instanceof JarFileWrapper) ? null : JarFileWrapper.unwrap(this.jarFile);
+      } else {
+         return null;
+      }
+   }
+
    public String getContentType() {
       return this.jarEntryName != null ? this.jarEntryName.getContentType() : null;
    }
@@ -180,7 +192,18 @@ final class JarURLConnection extends java.net.JarURLConnection {
    }
 
    static JarURLConnection get(URL url, JarFile jarFile) throws IOException {
-      StringSequence spec = new StringSequence(url.getFile());
+      String file = url.getFile();
+      JarURLConnection.ResolvedCache resolvedCache = jarFile.getResolvedCache();
+      JarURLConnection.Resolved resolved = resolvedCache.get(file);
+      if (resolved != null) {
+         if (!resolved.jarFile.isClosed()) {
+            return resolved.createConnection(url);
+         }
+
+         resolvedCache.remove(file, resolved);
+      }
+
+      StringSequence spec = new StringSequence(file);
       int index = indexOfRootSpec(spec, jarFile.getPathFromRoot());
       if (index == -1) {
          return Boolean.TRUE.equals(useFastExceptions.get()) ? NOT_FOUND_CONNECTION : new JarURLConnection(url, null, EMPTY_JAR_ENTRY_NAME);
@@ -198,9 +221,16 @@ final class JarURLConnection extends java.net.JarURLConnection {
          }
 
          JarURLConnection.JarEntryName jarEntryName = JarURLConnection.JarEntryName.get(spec, index);
-         return Boolean.TRUE.equals(useFastExceptions.get()) && !jarEntryName.isEmpty() && !jarFile.containsEntry(jarEntryName.toString())
-            ? NOT_FOUND_CONNECTION
-            : new JarURLConnection(url, new JarFileWrapper(jarFile), jarEntryName);
+         java.util.jar.JarEntry jarEntry = jarEntryName.isEmpty() ? null : jarFile.getJarEntry(jarEntryName.toCharSequence());
+         if (Boolean.TRUE.equals(useFastExceptions.get()) && !jarEntryName.isEmpty() && jarEntry == null) {
+            return NOT_FOUND_CONNECTION;
+         } else if (!jarEntryName.isEmpty() && jarEntry == null) {
+            return new JarURLConnection(url, new JarFileWrapper(jarFile), jarEntryName);
+         } else {
+            resolved = new JarURLConnection.Resolved(jarFile, new JarFileWrapper(jarFile), jarEntryName, jarEntry);
+            resolvedCache.put(file, resolved);
+            return resolved.createConnection(url);
+         }
       }
    }
 
@@ -236,6 +266,88 @@ final class JarURLConnection extends java.net.JarURLConnection {
       NOT_FOUND_CONNECTION = notFound();
    }
 
+   static final class ResolvedCache {
+      private final ConcurrentMap<String, JarURLConnection.ResolvedCache.Node> resolved = new ConcurrentHashMap();
+
+      JarURLConnection.Resolved get(String file) {
+         JarURLConnection.ResolvedCache.Node node = (JarURLConnection.ResolvedCache.Node)this.resolved.get(file);
+         if (node == null) {
+            return null;
+         } else {
+            if (!node.referenced) {
+               node.referenced = true;
+            }
+
+            return node.resolved;
+         }
+      }
+
+      void put(String file, JarURLConnection.Resolved resolved) {
+         this.resolved.put(file, new JarURLConnection.ResolvedCache.Node(resolved));
+         if (this.resolved.size() > JarURLConnection.RESOLVED_CACHE_SIZE) {
+            this.evict();
+         }
+
+      }
+
+      private void evict() {
+         for(int pass = 0; pass < 2 && this.resolved.size() > JarURLConnection.RESOLVED_CACHE_SIZE; ++pass) {
+            Iterator<JarURLConnection.ResolvedCache.Node> iterator = this.resolved.values().iterator();
+
+            while(iterator.hasNext() && this.resolved.size() > JarURLConnection.RESOLVED_CACHE_SIZE) {
+               JarURLConnection.ResolvedCache.Node node = (JarURLConnection.ResolvedCache.Node)iterator.next();
+               if (node.referenced) {
+                  node.referenced = false;
+               } else {
+                  iterator.remove();
+               }
+            }
+         }
+
+      }
+
+      void remove(String file, JarURLConnection.Resolved resolved) {
+         JarURLConnection.ResolvedCache.Node node = (JarURLConnection.ResolvedCache.Node)this.resolved.get(file);
+         if (node != null && node.resolved == resolved) {
+            this.resolved.remove(file, node);
+         }
+
+      }
+
+      void clear() {
+         this.resolved.clear();
+      }
+
+      private static final class Node {
+         private final JarURLConnection.Resolved resolved;
+         private volatile boolean referenced;
+
+         private Node(JarURLConnection.Resolved resolved) {
+            this.resolved = resolved;
+         }
+      }
+   }
+
+   private static final class Resolved {
+      private final JarFile jarFile;
+      private final JarFileWrapper jarFileWrapper;
+      private final JarURLConnection.JarEntryName jarEntryName;
+      private final java.util.jar.JarEntry jarEntry;
+
+      private Resolved(JarFile jarFile, JarFileWrapper jarFileWrapper, JarURLConnection.JarEntryName jarEntryName, java.util.jar.JarEntry jarEntry) {
+         this.jarFile = jarFile;
+         this.jarFileWrapper = jarFileWrapper;
+         this.jarEntryName = jarEntryName;
+         this.jarEntry = jarEntry;
+      }
+
+      private JarURLConnection createConnection(URL url) throws IOException {
+         JarURLConnection connection = new JarURLConnection(url, this.jarFileWrapper, this.jarEntryName);
+         connection.jarEntry = this.jarEntry;
+         return connection;
+      }
+   }
+
    static class JarEntryName {
       private final StringSequence name;
       private String contentType;
@@ -0,0 +1,105 @@
+package org.springframework.boot.loader.jar;
+
+import java.util.Arrays;
+
+final class MultiReleaseEntryAliases {
+   private static final AsciiBytes VERSIONS_PREFIX = new AsciiBytes("META-INF/versions/");
+   private static final AsciiBytes META_INF_PREFIX = new AsciiBytes("META-INF/");
+   private static final int BASE_VERSION = 8;
+   private final int[] hashCodes;
+   private final AsciiBytes[] names;
+   private final int[] indexes;
+   private final int[] versions;
+
+   MultiReleaseEntryAliases(AsciiBytes[] entryNames, int[] entryIndexes, int count, int runtimeVersion) {
+      long[] keys = new long[count];
+      AsciiBytes[] baseNames = new AsciiBytes[count];
+      int[] baseIndexes = new int[count];
+      int[] baseVersions = new int[count];
+      int size = 0;
+
+      for(int i = 0; i < count; ++i) {
+         AsciiBytes name = entryNames[i];
+         if (name.startsWith(VERSIONS_PREFIX)) {
+            String versionedName = name.toString();
+            int separator = versionedName.indexOf('/', VERSIONS_PREFIX.length());
+            int version = separator > VERSIONS_PREFIX.length() ? parseVersion(versionedName, VERSIONS_PREFIX.length(), separator) : -1;
+            if (version > BASE_VERSION && version <= runtimeVersion && separator + 1 < versionedName.length()) {
+               AsciiBytes baseName = new AsciiBytes(versionedName.substring(separator + 1));
+               if (!baseName.startsWith(META_INF_PREFIX)) {
+                  baseNames[size] = baseName;
+                  baseIndexes[size] = entryIndexes[i];
+                  baseVersions[size] = version;
+                  keys[size] = (long)baseName.hashCode() << 32 | (long)size;
+                  ++size;
+               }
+            }
+         }
+      }
+
+      Arrays.sort(keys, 0, size);
+      this.hashCodes = new int[size];
+      this.names = new AsciiBytes[size];
+      this.indexes = new int[size];
+      this.versions = new int[size];
+
+      for(int i = 0; i < size; ++i) {
+         int position = (int)keys[i];
+         this.hashCodes[i] = (int)(keys[i] >> 32);
+         this.names[i] = baseNames[position];
+         this.indexes[i] = baseIndexes[position];
+         this.versions[i] = baseVersions[position];
+      }
+
+   }
+
+   int findIndex(CharSequence name) {
+      int hashCode = AsciiBytes.hashCode(name);
+      int position = this.find(hashCode, name, '\u0000');
+      int directoryPosition = this.find(AsciiBytes.hashCode(hashCode, '/'), name, '/');
+      if (position == -1 || directoryPosition != -1 && this.versions[directoryPosition] > this.versions[position]) {
+         position = directoryPosition;
+      }
+
+      return position != -1 ? this.indexes[position] : -1;
+   }
+
+   private int find(int hashCode, CharSequence name, char suffix) {
+      int position = Arrays.binarySearch(this.hashCodes, hashCode);
+      if (position < 0) {
+         return -1;
+      } else {
+         while(position > 0 && this.hashCodes[position - 1] == hashCode) {
+            --position;
+         }
+
+         int found;
+         for(found = -1; position < this.hashCodes.length && this.hashCodes[position] == hashCode; ++position) {
+            if (this.names[position].matches(name, suffix) && (found == -1 || this.versions[position] > this.versions[found])) {
+               found = position;
+            }
+         }
+
+         return found;
+      }
+   }
+
+   private static int parseVersion(String name, int start, int end) {
+      if (name.charAt(start) == '0') {
+         return -1;
+      } else {
+         int version = 0;
+
+         for(int i = start; i < end; ++i) {
+            char ch = name.charAt(i);
+            if (ch < '0' || ch > '9' || version > 214748363) {
+               return -1;
+            }
+
+            version = version * 10 + (ch - '0');
+         }
+
+         return version;
+      }
+   }
+}
@@ -0,0 +1,224 @@
+package org.springframework.boot.loader.jar;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ResourceIndex {
+   private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+   private final JarFile[] jarFiles;
+   private final int[] hashCodes;
+   private final int[] offsets;
+   private final int[] archives;
+   private final int[] multiReleaseArchives;
+   private final LongAdder lookups = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+
+   private ResourceIndex(JarFile[] jarFiles, int[] hashCodes, int[] offsets, int[] archives, int[] multiReleaseArchives) {
+      this.jarFiles = jarFiles;
+      this.hashCodes = hashCodes;
+      this.offsets = offsets;
+      this.archives = archives;
+      this.multiReleaseArchives = multiReleaseArchives;
+   }
+
+   public int getArchiveCount() {
+      return this.jarFiles.length;
+   }
+
+   public JarFile getJarFile(int archive) {
+      return this.jarFiles[archive];
+   }
+
+   public int getCandidate(CharSequence name, int from) {
+      if (this.hashCodes == null) {
+         if (from == 0) {
+            this.lookups.increment();
+         }
+
+         return from < this.jarFiles.length ? from : -1;
+      }
+
+      int hashCode = AsciiBytes.hashCode(name);
+      int candidate = Math.min(this.getArchive(hashCode, from), this.getArchive(AsciiBytes.hashCode(hashCode, '/'), from));
+      candidate = Math.min(candidate, getArchive(this.multiReleaseArchives, 0, this.multiReleaseArchives.length, from));
+      if (from == 0) {
+         this.lookups.increment();
+         if (candidate == Integer.MAX_VALUE) {
+            this.misses.increment();
+         }
+      }
+
+      return candidate != Integer.MAX_VALUE ? candidate : -1;
+   }
+
+   public URL findResource(String name) {
+      for(int archive = this.getCandidate(name, 0); archive != -1; archive = this.getCandidate(name, archive + 1)) {
+         if (this.jarFiles[archive].getEntry(name) != null) {
+            URL url = createUrl(this.jarFiles[archive], name);
+            if (url != null) {
+               return url;
+            }
+         }
+      }
+
+      return null;
+   }
+
+   public List<URL> findResources(String name) {
+      List<URL> resources = new ArrayList();
+
+      for(int archive = this.getCandidate(name, 0); archive != -1; archive = this.getCandidate(name, archive + 1)) {
+         if (this.jarFiles[archive].getEntry(name) != null) {
+            URL url = createUrl(this.jarFiles[archive], name);
+            if (url != null) {
+               resources.add(url);
+            }
+         }
+      }
+
+      return resources;
+   }
+
+   private int getArchive(int hashCode, int from) {
+      int index = Arrays.binarySearch(this.hashCodes, hashCode);
+      return index < 0 ? Integer.MAX_VALUE : getArchive(this.archives, this.offsets[index], this.offsets[index + 1], from);
+   }
+
+   private static int getArchive(int[] archives, int start, int end, int from) {
+      for(int i = start; i < end; ++i) {
+         if (archives[i] >= from) {
+            return archives[i];
+         }
+      }
+
+      return Integer.MAX_VALUE;
+   }
+
+   public long getLookupCount() {
+      return this.lookups.sum();
+   }
+
+   public long getMissCount() {
+      return this.misses.sum();
+   }
+
+   @Override
+   public String toString() {
+      return "ResourceIndex[archives=" + this.jarFiles.length + ", names=" + (this.hashCodes != null ? this.hashCodes.length : -1) + ", lookups=" + this.getLookupCount() + ", misses=" + this.getMissCount() + "]";
+   }
+
+   private static URL createUrl(JarFile jarFile, String name) {
+      try {
+         return new URL(jarFile.getUrl(), encode(name));
+      } catch (MalformedURLException var3) {
+         return null;
+      }
+   }
+
+   private static String encode(String name) {
+      for(int i = 0; i < name.length(); ++i) {
+         if (!isUnreserved(name.charAt(i))) {
+            StringBuilder encoded = new StringBuilder(name.length() + 16).append(name, 0, i);
+
+            for(byte b : name.substring(i).getBytes(StandardCharsets.UTF_8)) {
+               if (b >= 0 && isUnreserved((char)b)) {
+                  encoded.append((char)b);
+               } else {
+                  encoded.append('%').append(HEX_DIGITS[b >> 4 & 15]).append(HEX_DIGITS[b & 15]);
+               }
+            }
+
+            return encoded.toString();
+         }
+      }
+
+      return name;
+   }
+
+   private static boolean isUnreserved(char ch) {
+      return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch >= '0' && ch <= '9' || "/-_.!~*'()$&+,;=@".indexOf(ch) != -1;
+   }
+
+   public static ResourceIndex unindexed(java.util.jar.JarFile[] jarFiles) {
+      JarFile[] unwrapped = unwrap(jarFiles);
+      return unwrapped != null ? new ResourceIndex(unwrapped, null, null, null, null) : null;
+   }
+
+   public static ResourceIndex build(java.util.jar.JarFile[] jarFiles) {
+      JarFile[] unwrapped = unwrap(jarFiles);
+      if (unwrapped == null) {
+         return null;
+      }
+
+      int total = 0;
+
+      for(JarFile jarFile : unwrapped) {
+         total += jarFile.getEntries().getSize();
+      }
+
+      long[] keys = new long[total];
+      int[] multiReleaseArchives = new int[jarFiles.length];
+      int multiReleaseCount = 0;
+      int size = 0;
+
+      for(int i = 0; i < unwrapped.length; ++i) {
+         JarFileEntries entries = unwrapped[i].getEntries();
+         int[] entryHashCodes = entries.getHashCodes();
+
+         for(int j = 0; j < entries.getSize(); ++j) {
+            keys[size++] = (long)entryHashCodes[j] << 32 | (long)i;
+         }
+
+         if (entries.isMultiReleaseJar()) {
+            multiReleaseArchives[multiReleaseCount++] = i;
+         }
+      }
+
+      Arrays.sort(keys);
+      int[] hashCodes = new int[total];
+      int[] offsets = new int[total + 1];
+      int[] archives = new int[total];
+      int unique = 0;
+      int count = 0;
+
+      for(int i = 0; i < total; ++i) {
+         int hashCode = (int)(keys[i] >> 32);
+         int archive = (int)keys[i];
+         if (unique == 0 || hashCodes[unique - 1] != hashCode) {
+            hashCodes[unique] = hashCode;
+            offsets[unique++] = count;
+            archives[count++] = archive;
+         } else if (archives[count - 1] != archive) {
+            archives[count++] = archive;
+         }
+      }
+
+      offsets[unique] = count;
+      return new ResourceIndex(
+         unwrapped,
+         Arrays.copyOf(hashCodes, unique),
+         Arrays.copyOf(offsets, unique + 1),
+         Arrays.copyOf(archives, count),
+         Arrays.copyOf(multiReleaseArchives, multiReleaseCount)
+      );
+   }
+
+   private static JarFile[] unwrap(java.util.jar.JarFile[] jarFiles) {
+      JarFile[] unwrapped = new JarFile[jarFiles.length];
+
+      for(int i = 0; i < jarFiles.length; ++i) {
+         if (!(jarFiles[i] instanceof JarFile) && !(jarFiles[i] instanceof JarFileWrapper)) {
+            return null;
+         }
+
+         unwrapped[i] = JarFileWrapper.unwrap(jarFiles[i]);
+      }
+
+      return unwrapped;
+   }
+}
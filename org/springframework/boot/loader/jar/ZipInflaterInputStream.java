@@ -3,16 +3,40 @@ package org.springframework.boot.loader.jar;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
 
 class ZipInflaterInputStream extends InflaterInputStream {
+   private static final int POOL_SIZE = 32;
+   private static final int POOLED_BUFFER_SIZE = 8192;
+   private static final BlockingQueue<Inflater> inflaterPool = new ArrayBlockingQueue(POOL_SIZE);
+   private static final BlockingQueue<byte[]> bufferPool = new ArrayBlockingQueue(POOL_SIZE);
+   private static final ReferenceQueue<ZipInflaterInputStream> unclosedStreams = new ReferenceQueue();
+   private static final Set<ZipInflaterInputStream.Resources> openResources = ConcurrentHashMap.newKeySet();
+   private final ZipInflaterInputStream.Resources resources;
    private int available;
    private boolean extraBytesWritten;
 
    ZipInflaterInputStream(InputStream inputStream, int size) {
-      super(inputStream, new Inflater(true), getInflaterBufferSize((long)size));
+      this(inputStream, size, acquireInflater(), acquireBuffer(getInflaterBufferSize((long)size)));
+   }
+
+   private ZipInflaterInputStream(InputStream inputStream, int size, Inflater inflater, byte[] buffer) {
+      super(inputStream, inflater, 1);
+      this.buf = buffer;
       this.available = size;
+      this.resources = new ZipInflaterInputStream.Resources(this, inflater, buffer);
+      openResources.add(this.resources);
    }
 
    public int available() throws IOException {
@@ -29,8 +53,12 @@ class ZipInflaterInputStream extends InflaterInputStream {
    }
 
    public void close() throws IOException {
-      super.close();
-      this.inf.end();
+      try {
+         super.close();
+      } finally {
+         this.resources.release();
+      }
+
    }
 
    protected void fill() throws IOException {
@@ -49,10 +77,117 @@ class ZipInflaterInputStream extends InflaterInputStream {
 
    }
 
+   static ByteBuffer inflate(ByteBuffer compressed, int size) throws IOException {
+      byte[] input;
+      int offset;
+      if (compressed.hasArray()) {
+         input = compressed.array();
+         offset = compressed.arrayOffset() + compressed.position();
+      } else {
+         input = new byte[compressed.remaining()];
+         compressed.duplicate().get(input);
+         offset = 0;
+      }
+
+      Inflater inflater = acquireInflater();
+
+      ByteBuffer var12;
+      try {
+         inflater.setInput(input, offset, compressed.remaining());
+         byte[] output = new byte[size];
+         int inflated = 0;
+         boolean dummyByte = false;
+
+         while(inflated < size && !inflater.finished()) {
+            int count = inflater.inflate(output, inflated, size - inflated);
+            if (count == 0) {
+               if (!inflater.needsInput() || dummyByte) {
+                  break;
+               }
+
+               inflater.setInput(new byte[1]);
+               dummyByte = true;
+            }
+
+            inflated += count;
+         }
+
+         if (inflated != size) {
+            throw new ZipException("Unexpected inflated size " + inflated + " (expected " + size + ")");
+         }
+
+         var12 = ByteBuffer.wrap(output);
+      } catch (DataFormatException var16) {
+         throw new ZipException(var16.getMessage());
+      } finally {
+         releaseInflater(inflater);
+      }
+
+      return var12;
+   }
+
+   private static Inflater acquireInflater() {
+      releaseUnclosedStreams();
+      Inflater inflater = (Inflater)inflaterPool.poll();
+      return inflater != null ? inflater : new Inflater(true);
+   }
+
+   private static void releaseInflater(Inflater inflater) {
+      inflater.reset();
+      if (!inflaterPool.offer(inflater)) {
+         inflater.end();
+      }
+
+   }
+
+   private static byte[] acquireBuffer(int size) {
+      if (size > POOLED_BUFFER_SIZE) {
+         return new byte[size];
+      } else {
+         byte[] buffer = (byte[])bufferPool.poll();
+         return buffer != null ? buffer : new byte[POOLED_BUFFER_SIZE];
+      }
+   }
+
+   private static void releaseBuffer(byte[] buffer) {
+      if (buffer.length == POOLED_BUFFER_SIZE) {
+         bufferPool.offer(buffer);
+      }
+
+   }
+
+   private static void releaseUnclosedStreams() {
+      Reference<? extends ZipInflaterInputStream> reference;
+      while((reference = unclosedStreams.poll()) != null) {
+         ((ZipInflaterInputStream.Resources)reference).release();
+      }
+
+   }
+
    private static int getInflaterBufferSize(long size) {
       size += 2L;
       size = size > 65536L ? 8192L : size;
       size = size <= 0L ? 4096L : size;
       return (int)size;
    }
+
+   private static final class Resources extends PhantomReference<ZipInflaterInputStream> {
+      private final Inflater inflater;
+      private final byte[] buffer;
+
+      private Resources(ZipInflaterInputStream stream, Inflater inflater, byte[] buffer) {
+         super(stream, ZipInflaterInputStream.unclosedStreams);
+         this.inflater = inflater;
+         this.buffer = buffer;
+      }
+
+      private void release() {
+         if (ZipInflaterInputStream.openResources.remove(this)) {
+            this.clear();
+            ZipInflaterInputStream.releaseInflater(this.inflater);
+            ZipInflaterInputStream.releaseBuffer(this.buffer);
+         }
+
+      }
+   }
 }